@@ -0,0 +1,194 @@
+package chess;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import chess.engine.Search;
+
+// Micro benchmarks for the hot paths: piece move generation, performChessMove, testCheck/testCheckMate and
+// getPieces. Each one runs warmup and measured iterations of a fixed duration and reports time and bytes
+// allocated per operation, read from the thread allocation counter the way a GC profiler does. The same cases
+// are annotated JMH benchmarks in the jmh module.
+// usage: ChessBenchmark [-wi warmupIterations] [-i iterations] [-t millisPerIteration] [filter]
+public class ChessBenchmark {
+
+    // quiet Italian game middlegame, both sides can shuttle a knight (Nc3-b1, Nc6-b8) and come back
+    static final String MIDDLEGAME = "r1bq1rk1/pppp1ppp/2n2n2/2b1p3/2B1P3/2NP1N2/PPP2PPP/R1BQ1RK1 w - - 0 7";
+    // black to move in check after Bxf7+
+    static final String MIDDLEGAME_CHECK = "r1bqk2r/pppp1Bpp/2n2n2/2b1p3/4P3/5N2/PPPP1PPP/RNBQK2R b KQkq - 0 4";
+    // rook endgame where both kings can shuttle
+    static final String ENDGAME = "8/8/4k3/8/2R5/8/4K3/8 w - - 0 1";
+    // back rank mate, black to move
+    static final String ENDGAME_MATE = "3R2k1/5ppp/8/8/8/8/8/6K1 b - - 0 1";
+
+    private static final String[] MIDDLEGAME_CYCLE = { "c3b1", "c6b8", "b1c3", "b8c6" };
+    private static final String[] ENDGAME_CYCLE = { "e2d2", "e6d6", "d2e2", "d6e6" };
+
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+        int warmups = 3;
+        int iterations = 5;
+        long millis = 500;
+        String filter = "";
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-wi")) {
+                warmups = Integer.parseInt(args[++i]);
+            }
+            else if (args[i].equals("-i")) {
+                iterations = Integer.parseInt(args[++i]);
+            }
+            else if (args[i].equals("-t")) {
+                millis = Long.parseLong(args[++i]);
+            }
+            else {
+                filter = args[i];
+            }
+        }
+
+        System.out.printf("%-40s %14s %14s %12s%n", "Benchmark", "ns/op", "B/op", "MB/s");
+        Map<String, Runnable> resets = new LinkedHashMap<>();
+        for (Map.Entry<String, LongSupplier> e : benchmarks(resets).entrySet()) {
+            if (e.getKey().contains(filter)) {
+                run(e.getKey(), e.getValue(), resets.get(e.getKey()), warmups, iterations, millis);
+            }
+        }
+    }
+
+    // resets gets, for the cases that change their match, what puts it back before each batch
+    static Map<String, LongSupplier> benchmarks(Map<String, Runnable> resets) {
+        Map<String, LongSupplier> map = new LinkedHashMap<>();
+
+        ChessMatch middlegame = ChessMatch.fromFen(MIDDLEGAME);
+        ChessPiece[][] pieces = middlegame.getPieces();
+        String[] squares = { "e4", "f3", "c4", "a1", "d1", "g1" };
+        for (String square : squares) {
+            ChessPiece piece = piece(pieces, square);
+            String name = piece.getClass().getSimpleName();
+            map.put(name + ".possibleMoves", () -> piece.possibleMoves().length);
+            map.put(name + ".possibleMovesMask", () -> piece.possibleMovesMask());
+        }
+
+        int[] moves = new int[Move.MAX_MOVES];
+        ChessMatch check = ChessMatch.fromFen(MIDDLEGAME_CHECK);
+        map.put("generateMoves middlegame", () -> middlegame.generateMoves(moves));
+        map.put("generateLegalMoves middlegame", () -> middlegame.generateLegalMoves(moves));
+        map.put("generateLegalMoves check", () -> check.generateLegalMoves(moves));
+        map.put("getPieces middlegame", () -> middlegame.getPieces().length);
+        map.put("evaluate middlegame", () -> middlegame.evaluate());
+
+        BitBoard fenBoard = new BitBoard();
+        StringBuilder fen = new StringBuilder(100);
+        map.put("loadFen middlegame", () -> {
+            fenBoard.loadFen(MIDDLEGAME);
+            return fenBoard.getKey();
+        });
+        map.put("toFen middlegame", () -> {
+            fen.setLength(0);
+            try {
+                middlegame.toFen(fen);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return fen.length();
+        });
+
+        // every move stays on the undo stacks, so the match is loaded again before each batch
+        ChessMatch[] shuttle = new ChessMatch[1];
+        int[] ply = new int[1];
+        map.put("performChessMove middlegame", () -> perform(shuttle[0], MIDDLEGAME_CYCLE, ply));
+        resets.put("performChessMove middlegame", () -> {
+            shuttle[0] = ChessMatch.fromFen(MIDDLEGAME);
+            ply[0] = 0;
+        });
+        ChessMatch[] endgameShuttle = new ChessMatch[1];
+        int[] endgamePly = new int[1];
+        map.put("performChessMove endgame", () -> perform(endgameShuttle[0], ENDGAME_CYCLE, endgamePly));
+        resets.put("performChessMove endgame", () -> {
+            endgameShuttle[0] = ChessMatch.fromFen(ENDGAME);
+            endgamePly[0] = 0;
+        });
+
+        ChessMatch endgame = ChessMatch.fromFen(ENDGAME);
+        ChessMatch mate = ChessMatch.fromFen(ENDGAME_MATE);
+        map.put("testCheck middlegame", () -> middlegame.testCheck(Color.BRANCO) ? 1 : 0);
+        map.put("testCheck endgame", () -> endgame.testCheck(Color.BRANCO) ? 1 : 0);
+        map.put("testCheckMate middlegame in check", () -> check.testCheckMate(Color.PRETO) ? 1 : 0);
+        map.put("testCheckMate endgame mate", () -> mate.testCheckMate(Color.PRETO) ? 1 : 0);
+
+        // a whole search per operation, starting from an empty table each time
+        Search search = new Search(middlegame.copyBitBoard(), new TranspositionTable(1));
+        map.put("Search depth 4 middlegame", () -> {
+            search.clear();
+            return search.bestMove(4);
+        });
+        return map;
+    }
+
+    private static long perform(ChessMatch match, String[] cycle, int[] ply) {
+        String move = cycle[ply[0]++ & 3];
+        ChessPiece captured = match.performChessMove(new ChessPosition(move.charAt(0), move.charAt(1) - '0'),
+                new ChessPosition(move.charAt(2), move.charAt(3) - '0'));
+        return (captured == null) ? 0 : 1;
+    }
+
+    private static ChessPiece piece(ChessPiece[][] pieces, String square) {
+        return pieces[8 - (square.charAt(1) - '0')][square.charAt(0) - 'a'];
+    }
+
+    private static void run(String name, LongSupplier benchmark, Runnable reset, int warmups, int iterations,
+            long millis) {
+        for (int i = 0; i < warmups; i++) {
+            iteration(benchmark, reset, millis, null);
+        }
+        long[] totals = new long[3];
+        for (int i = 0; i < iterations; i++) {
+            iteration(benchmark, reset, millis, totals);
+        }
+        double ns = (double) totals[1] / totals[0];
+        double bytes = (double) totals[2] / totals[0];
+        double mbPerSecond = totals[2] / (totals[1] / 1e9) / (1 << 20);
+        System.out.printf("%-40s %14.1f %14.1f %12.1f%n", name, ns, bytes, mbPerSecond);
+    }
+
+    // totals accumulates operations, nanoseconds and allocated bytes; the time and bytes of reset are left out
+    private static void iteration(LongSupplier benchmark, Runnable reset, long millis, long[] totals) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long deadline = System.nanoTime() + millis * 1000000L;
+        long operations = 0;
+        long result = 0;
+        long excludedNanos = 0;
+        long excludedBytes = 0;
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        long now;
+        do {
+            if (reset != null) {
+                long pausedAt = System.nanoTime();
+                long pausedBytes = threads.getThreadAllocatedBytes(thread);
+                reset.run();
+                excludedBytes += threads.getThreadAllocatedBytes(thread) - pausedBytes;
+                excludedNanos += System.nanoTime() - pausedAt;
+            }
+            // batches keep the clock reads out of the measurement
+            for (int i = 0; i < 256; i++) {
+                result += benchmark.getAsLong();
+            }
+            operations += 256;
+            now = System.nanoTime();
+        } while (now < deadline);
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore - excludedBytes;
+        sink = result;
+        if (totals != null) {
+            totals[0] += operations;
+            totals[1] += now - start - excludedNanos;
+            totals[2] += allocated;
+        }
+    }
+}
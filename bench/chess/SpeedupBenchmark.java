@@ -0,0 +1,64 @@
+package chess;
+
+import chess.engine.ParallelSearch;
+
+// Time-to-depth of the parallel search as threads are added: each thread count searches the same positions to
+// the same depth from an empty table, and the speedup is the one-thread time divided by this one.
+// usage: SpeedupBenchmark [-d depth] [-t maxThreads] [-hash MB]
+public class SpeedupBenchmark {
+
+    private static final String[] POSITIONS = {
+        ChessBenchmark.MIDDLEGAME,
+        ChessBenchmark.MIDDLEGAME_CHECK,
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        ChessBenchmark.ENDGAME,
+    };
+
+    public static void main(String[] args) {
+        int depth = 7;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        int hash = 64;
+        for (int i = 0; i < args.length - 1; i += 2) {
+            if (args[i].equals("-d")) {
+                depth = Integer.parseInt(args[i + 1]);
+            }
+            else if (args[i].equals("-t")) {
+                maxThreads = Integer.parseInt(args[i + 1]);
+            }
+            else if (args[i].equals("-hash")) {
+                hash = Integer.parseInt(args[i + 1]);
+            }
+        }
+
+        // untimed passes so the first row is not measuring the JIT
+        for (int i = 0; i < 3; i++) {
+            run(1, depth, hash);
+        }
+
+        System.out.printf("%8s %12s %14s %12s %9s%n", "Threads", "ms", "Nodes", "Nodes/s", "Speedup");
+        long single = 0;
+        // doubling, with the last run on every thread even when the count is not a power of two
+        for (int threads = 1; threads <= maxThreads; threads = (threads < maxThreads) ? Math.min(threads * 2, maxThreads) : threads + 1) {
+            long[] totals = run(threads, depth, hash);
+            long millis = totals[0];
+            long nodes = totals[1];
+            if (threads == 1) {
+                single = millis;
+            }
+            System.out.printf("%8d %12d %14d %12d %9.2f%n", threads, millis, nodes, nodes * 1000 / Math.max(1L, millis),
+                    (double) single / Math.max(1L, millis));
+        }
+    }
+
+    // total milliseconds and nodes over all positions
+    private static long[] run(int threads, int depth, int hash) {
+        long[] totals = new long[2];
+        for (String fen : POSITIONS) {
+            ParallelSearch search = new ParallelSearch(BitBoard.fromFen(fen), threads, new TranspositionTable(hash));
+            search.bestMove(depth);
+            totals[0] += search.getElapsedMillis();
+            totals[1] += search.getNodes();
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,133 @@
+package chess;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The read-only hot paths of ChessBenchmark under JMH: none of them changes the match, so one setup per trial
+// serves every invocation.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveGenerationBenchmark {
+
+    static final String MIDDLEGAME = "r1bq1rk1/pppp1ppp/2n2n2/2b1p3/2B1P3/2NP1N2/PPP2PPP/R1BQ1RK1 w - - 0 7";
+    static final String MIDDLEGAME_CHECK = "r1bqk2r/pppp1Bpp/2n2n2/2b1p3/4P3/5N2/PPPP1PPP/RNBQK2R b KQkq - 0 4";
+    static final String ENDGAME = "8/8/4k3/8/2R5/8/4K3/8 w - - 0 1";
+    static final String ENDGAME_MATE = "3R2k1/5ppp/8/8/8/8/8/6K1 b - - 0 1";
+
+    // a piece of the middlegame; a state of its own so only the piece benchmarks run once per square
+    @State(Scope.Thread)
+    public static class Piece {
+
+        // pawn, knight, bishop, rook, queen and king
+        @Param({ "e4", "f3", "c4", "a1", "d1", "g1" })
+        public String square;
+
+        ChessPiece piece;
+
+        @Setup
+        public void setup() {
+            ChessPiece[][] pieces = ChessMatch.fromFen(MIDDLEGAME).getPieces();
+            piece = pieces[8 - (square.charAt(1) - '0')][square.charAt(0) - 'a'];
+        }
+    }
+
+    private ChessMatch middlegame;
+    private ChessMatch check;
+    private ChessMatch endgame;
+    private ChessMatch mate;
+    private final int[] moves = new int[Move.MAX_MOVES];
+    private final BitBoard fenBoard = new BitBoard();
+    private final StringBuilder fen = new StringBuilder(100);
+
+    @Setup
+    public void setup() {
+        middlegame = ChessMatch.fromFen(MIDDLEGAME);
+        check = ChessMatch.fromFen(MIDDLEGAME_CHECK);
+        endgame = ChessMatch.fromFen(ENDGAME);
+        mate = ChessMatch.fromFen(ENDGAME_MATE);
+    }
+
+    @Benchmark
+    public boolean[][] possibleMoves(Piece piece) {
+        return piece.piece.possibleMoves();
+    }
+
+    @Benchmark
+    public long possibleMovesMask(Piece piece) {
+        return piece.piece.possibleMovesMask();
+    }
+
+    @Benchmark
+    public int generateMoves() {
+        return middlegame.generateMoves(moves);
+    }
+
+    @Benchmark
+    public int generateLegalMoves() {
+        return middlegame.generateLegalMoves(moves);
+    }
+
+    @Benchmark
+    public int generateLegalMovesInCheck() {
+        return check.generateLegalMoves(moves);
+    }
+
+    @Benchmark
+    public ChessPiece[][] getPieces() {
+        return middlegame.getPieces();
+    }
+
+    @Benchmark
+    public int evaluate() {
+        return middlegame.evaluate();
+    }
+
+    @Benchmark
+    public long loadFen() {
+        fenBoard.loadFen(MIDDLEGAME);
+        return fenBoard.getKey();
+    }
+
+    @Benchmark
+    public int toFen() throws IOException {
+        fen.setLength(0);
+        middlegame.toFen(fen);
+        return fen.length();
+    }
+
+    @Benchmark
+    public boolean testCheckMiddlegame() {
+        return middlegame.testCheck(Color.BRANCO);
+    }
+
+    @Benchmark
+    public boolean testCheckEndgame() {
+        return endgame.testCheck(Color.BRANCO);
+    }
+
+    @Benchmark
+    public boolean testCheckMateInCheck() {
+        return check.testCheckMate(Color.PRETO);
+    }
+
+    @Benchmark
+    public boolean testCheckMateMate() {
+        return mate.testCheckMate(Color.PRETO);
+    }
+}
@@ -0,0 +1,68 @@
+package chess;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// performChessMove changes the match and every move it plays stays on the undo stacks, so an open-ended run
+// would end up measuring the stacks growing. Each measured shot instead plays a fixed batch of moves on a match
+// loaded fresh before it, outside the measurement.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 50, batchSize = PerformMoveBenchmark.BATCH)
+@Measurement(iterations = 100, batchSize = PerformMoveBenchmark.BATCH)
+@Fork(1)
+@State(Scope.Thread)
+public class PerformMoveBenchmark {
+
+    // whole cycles, so every shot starts and ends on the same position
+    static final int BATCH = 256;
+
+    private static final String[] MIDDLEGAME_CYCLE = { "c3b1", "c6b8", "b1c3", "b8c6" };
+    private static final String[] ENDGAME_CYCLE = { "e2d2", "e6d6", "d2e2", "d6e6" };
+
+    @Param({ "middlegame", "endgame" })
+    public String position;
+
+    private String fen;
+    private ChessPosition[] sources;
+    private ChessPosition[] targets;
+    private ChessMatch match;
+    private int ply;
+
+    @Setup
+    public void setup() {
+        boolean middlegame = position.equals("middlegame");
+        fen = middlegame ? MoveGenerationBenchmark.MIDDLEGAME : MoveGenerationBenchmark.ENDGAME;
+        String[] cycle = middlegame ? MIDDLEGAME_CYCLE : ENDGAME_CYCLE;
+        sources = new ChessPosition[cycle.length];
+        targets = new ChessPosition[cycle.length];
+        for (int i = 0; i < cycle.length; i++) {
+            sources[i] = new ChessPosition(cycle[i].charAt(0), cycle[i].charAt(1) - '0');
+            targets[i] = new ChessPosition(cycle[i].charAt(2), cycle[i].charAt(3) - '0');
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        match = ChessMatch.fromFen(fen);
+        ply = 0;
+    }
+
+    @Benchmark
+    public ChessPiece performChessMove() {
+        int i = ply++ & 3;
+        return match.performChessMove(sources[i], targets[i]);
+    }
+}
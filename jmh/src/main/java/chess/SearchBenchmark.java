@@ -0,0 +1,93 @@
+package chess;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chess.engine.ParallelSearch;
+import chess.engine.Search;
+
+// Whole searches from an empty table: a fixed depth on one thread, and the time-to-depth of SpeedupBenchmark for
+// each thread count, whose ratio to the one-thread score is the speedup.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SearchBenchmark {
+
+    @State(Scope.Thread)
+    public static class Single {
+
+        Search search;
+
+        @Setup
+        public void setup() {
+            search = new Search(BitBoard.fromFen(MoveGenerationBenchmark.MIDDLEGAME), new TranspositionTable(1));
+        }
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            search.clear();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Parallel {
+
+        @Param({ "1", "2", "4" })
+        public int threads;
+
+        @Param({ "6" })
+        public int depth;
+
+        ParallelSearch[] searches;
+
+        @Setup
+        public void setup() {
+            String[] positions = {
+                MoveGenerationBenchmark.MIDDLEGAME,
+                MoveGenerationBenchmark.MIDDLEGAME_CHECK,
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                MoveGenerationBenchmark.ENDGAME,
+            };
+            searches = new ParallelSearch[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                searches[i] = new ParallelSearch(BitBoard.fromFen(positions[i]), threads, new TranspositionTable(64));
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            for (ParallelSearch search : searches) {
+                search.clear();
+            }
+        }
+    }
+
+    @Benchmark
+    public int searchDepth4(Single state) {
+        return state.search.bestMove(4);
+    }
+
+    @Benchmark
+    public long timeToDepth(Parallel state) {
+        long nodes = 0;
+        for (ParallelSearch search : state.searches) {
+            search.bestMove(state.depth);
+            nodes += search.getNodes();
+        }
+        return nodes;
+    }
+}
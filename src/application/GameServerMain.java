@@ -0,0 +1,34 @@
+package application;
+
+import java.io.IOException;
+
+import chess.server.GameServer;
+
+public class GameServerMain {
+
+	// usage: GameServerMain [porta] [-reactors N]
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int port = 7000;
+		int reactors = Runtime.getRuntime().availableProcessors();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-reactors")) {
+				reactors = Integer.parseInt(args[++i]);
+			}
+			else {
+				port = Integer.parseInt(args[i]);
+			}
+		}
+
+		GameServer server = new GameServer(port, reactors);
+		server.start();
+		System.out.println("Servidor na porta " + server.getPort() + " com " + reactors + " reactors");
+		long lastMoves = 0;
+		while (true) {
+			Thread.sleep(5000);
+			long moves = server.getMoves();
+			System.out.println("Conexoes: " + server.getConnections() + ", partidas: " + server.getGames()
+					+ ", lances/s: " + (moves - lastMoves) / 5);
+			lastMoves = moves;
+		}
+	}
+}
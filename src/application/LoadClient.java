@@ -0,0 +1,249 @@
+package application;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import chess.BitBoard;
+import chess.Move;
+
+// Load generator for GameServerMain: every connection plays both sides of many matches with random legal moves,
+// sending one move per match per round in a single write and then reading the answers. With -pares the
+// connections play in pairs, white on one and black on the other, so every move waits for the MOVED notification
+// the opponent's connection gets.
+public class LoadClient {
+
+	// a notification that never arrives shows up as an error instead of a hang
+	private static final int READ_TIMEOUT = 10000;
+
+	private static final AtomicLong moves = new AtomicLong();
+	private static final AtomicLong errors = new AtomicLong();
+	private static volatile boolean running = true;
+
+	// usage: LoadClient <host> <porta> <conexoes> <partidas por conexao> <segundos> [-pares]
+	public static void main(String[] args) throws InterruptedException {
+		if (args.length < 5) {
+			System.out.println("Uso: LoadClient <host> <porta> <conexoes> <partidas por conexao> <segundos> [-pares]");
+			return;
+		}
+		String host = args[0];
+		int port = Integer.parseInt(args[1]);
+		int connections = Integer.parseInt(args[2]);
+		int matches = Integer.parseInt(args[3]);
+		long seconds = Long.parseLong(args[4]);
+		boolean pairs = args.length > 5 && args[5].equals("-pares");
+
+		// a pair's two connections are driven by one thread
+		Thread[] threads = new Thread[pairs ? Math.max(1, connections / 2) : connections];
+		for (int i = 0; i < threads.length; i++) {
+			long seed = i;
+			Runnable task = pairs ? () -> playPair(host, port, matches, seed) : () -> play(host, port, matches, seed);
+			threads[i] = new Thread(task, "load-" + i);
+			threads[i].start();
+		}
+		long start = System.nanoTime();
+		Thread.sleep(seconds * 1000);
+		running = false;
+		long elapsed = System.nanoTime() - start;
+		long total = moves.get();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		System.out.println("Partidas simultaneas: " + threads.length * matches);
+		System.out.println("Lances: " + total + ", erros: " + errors.get());
+		System.out.println("Lances/s: " + total * 1000000000L / elapsed);
+	}
+
+	private static void play(String host, int port, int count, long seed) {
+		Random random = new Random(seed);
+		long[] ids = new long[count];
+		BitBoard[] boards = new BitBoard[count];
+		int[] sent = new int[count];
+		boolean[] ended = new boolean[count];
+		int[] list = new int[Move.MAX_MOVES];
+		try (Socket socket = connect(host, port)) {
+			OutputStream out = output(socket);
+			BufferedReader in = input(socket);
+			for (int i = 0; i < count; i++) {
+				boards[i] = new BitBoard();
+				ids[i] = newMatch(out, in, boards[i]);
+			}
+			while (running) {
+				for (int i = 0; i < count; i++) {
+					int n = boards[i].generateLegalMoves(list);
+					sent[i] = list[random.nextInt(n)];
+					write(out, "MOVE " + ids[i] + " " + Move.toString(sent[i]));
+				}
+				out.flush();
+				for (int i = 0; i < count; i++) {
+					String answer = in.readLine();
+					if (answer == null) {
+						return;
+					}
+					if (!answer.startsWith("OK")) {
+						errors.incrementAndGet();
+						System.out.println(answer);
+						ended[i] = true;
+						continue;
+					}
+					moves.incrementAndGet();
+					boards[i].makeMove(sent[i]);
+					ended[i] = answer.endsWith("CHECKMATE") || answer.endsWith("DRAW");
+				}
+				// only once every answer of the round is read, so the new matches' answers are not mixed in
+				for (int i = 0; i < count; i++) {
+					if (ended[i]) {
+						ids[i] = newMatch(out, in, boards[i]);
+						ended[i] = false;
+					}
+				}
+			}
+			write(out, "QUIT");
+			out.flush();
+		}
+		catch (SocketTimeoutException e) {
+			errors.incrementAndGet();
+			System.out.println("Sem resposta do servidor em " + READ_TIMEOUT / 1000 + " s");
+		}
+		catch (IOException e) {
+			System.out.println("Conexao perdida: " + e.getMessage());
+		}
+	}
+
+	// white moves in every match, then black; each side reads its answers and then the other side's notifications
+	private static void playPair(String host, int port, int count, long seed) {
+		Random random = new Random(seed);
+		long[] ids = new long[count];
+		BitBoard[] boards = new BitBoard[count];
+		int[] sent = new int[count];
+		boolean[] moved = new boolean[count];
+		boolean[] ended = new boolean[count];
+		int[] list = new int[Move.MAX_MOVES];
+		try (Socket white = connect(host, port); Socket black = connect(host, port)) {
+			OutputStream[] out = { output(white), output(black) };
+			BufferedReader[] in = { input(white), input(black) };
+			for (int i = 0; i < count; i++) {
+				boards[i] = new BitBoard();
+				ids[i] = newPairMatch(out, in, boards[i]);
+			}
+			while (running) {
+				for (int side = 0; side < 2; side++) {
+					for (int i = 0; i < count; i++) {
+						moved[i] = false;
+						if (!ended[i]) {
+							int n = boards[i].generateLegalMoves(list);
+							sent[i] = list[random.nextInt(n)];
+							write(out[side], "MOVE " + ids[i] + " " + Move.toString(sent[i]));
+						}
+					}
+					out[side].flush();
+					for (int i = 0; i < count; i++) {
+						if (ended[i]) {
+							continue;
+						}
+						String answer = in[side].readLine();
+						if (answer == null) {
+							return;
+						}
+						if (!answer.startsWith("OK")) {
+							errors.incrementAndGet();
+							System.out.println(answer);
+							ended[i] = true;
+							continue;
+						}
+						moves.incrementAndGet();
+						moved[i] = true;
+						boards[i].makeMove(sent[i]);
+						ended[i] = answer.endsWith("CHECKMATE") || answer.endsWith("DRAW");
+					}
+					for (int i = 0; i < count; i++) {
+						if (!moved[i]) {
+							continue;
+						}
+						String notice = in[1 - side].readLine();
+						if (notice == null) {
+							return;
+						}
+						if (!notice.startsWith("MOVED " + ids[i] + " " + Move.toString(sent[i]))) {
+							errors.incrementAndGet();
+							System.out.println("Notificacao inesperada: " + notice);
+						}
+					}
+				}
+				for (int i = 0; i < count; i++) {
+					if (ended[i]) {
+						ids[i] = newPairMatch(out, in, boards[i]);
+						ended[i] = false;
+					}
+				}
+			}
+			for (OutputStream stream : out) {
+				write(stream, "QUIT");
+				stream.flush();
+			}
+		}
+		catch (SocketTimeoutException e) {
+			errors.incrementAndGet();
+			System.out.println("Sem resposta do servidor em " + READ_TIMEOUT / 1000 + " s");
+		}
+		catch (IOException e) {
+			System.out.println("Conexao perdida: " + e.getMessage());
+		}
+	}
+
+	private static Socket connect(String host, int port) throws IOException {
+		Socket socket = new Socket(host, port);
+		socket.setTcpNoDelay(true);
+		socket.setSoTimeout(READ_TIMEOUT);
+		return socket;
+	}
+
+	private static OutputStream output(Socket socket) throws IOException {
+		return new BufferedOutputStream(socket.getOutputStream(), 1 << 16);
+	}
+
+	private static BufferedReader input(Socket socket) throws IOException {
+		return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+	}
+
+	// creates a match and joins it, so this connection plays both colors
+	private static long newMatch(OutputStream out, BufferedReader in, BitBoard board) throws IOException {
+		write(out, "NEW");
+		out.flush();
+		long id = Long.parseLong(in.readLine().split(" ")[1]);
+		write(out, "JOIN " + id);
+		out.flush();
+		in.readLine();
+		board.loadFen(BitBoard.START_FEN);
+		return id;
+	}
+
+	// the first connection creates the match and plays white, the second joins it as black
+	private static long newPairMatch(OutputStream[] out, BufferedReader[] in, BitBoard board) throws IOException {
+		write(out[0], "NEW");
+		out[0].flush();
+		long id = Long.parseLong(in[0].readLine().split(" ")[1]);
+		write(out[1], "JOIN " + id);
+		out[1].flush();
+		in[1].readLine();
+		String notice = in[0].readLine();
+		if (!("JOINED " + id).equals(notice)) {
+			errors.incrementAndGet();
+			System.out.println("Notificacao inesperada: " + notice);
+		}
+		board.loadFen(BitBoard.START_FEN);
+		return id;
+	}
+
+	private static void write(OutputStream out, String line) throws IOException {
+		out.write(line.getBytes(StandardCharsets.US_ASCII));
+		out.write('\n');
+	}
+}
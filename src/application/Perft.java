@@ -0,0 +1,170 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import chess.BitBoard;
+import chess.Move;
+
+public class Perft {
+
+	public static final String START_FEN = BitBoard.START_FEN;
+
+	// usage: Perft <depth> [-fen "<fen>"] [-threads N] [-hash MB]
+	public static void main(String[] args) {
+		if (args.length < 1 || Integer.parseInt(args[0]) < 1) {
+			System.out.println("Uso: Perft <profundidade> [-fen \"<fen>\"] [-threads N] [-hash MB], profundidade de 1 em diante");
+			return;
+		}
+		int depth = Integer.parseInt(args[0]);
+		String fen = START_FEN;
+		int threads = 1;
+		int hash = -1;
+		for (int i = 1; i < args.length - 1; i += 2) {
+			if (args[i].equals("-fen")) {
+				fen = args[i + 1];
+			}
+			else if (args[i].equals("-threads")) {
+				threads = Integer.parseInt(args[i + 1]);
+			}
+			else if (args[i].equals("-hash")) {
+				hash = Integer.parseInt(args[i + 1]);
+			}
+		}
+		// the shared cache is what lets the parallel mode skip transpositions other workers already counted
+		if (hash < 0) {
+			hash = (threads > 1) ? 64 : 0;
+		}
+
+		BitBoard bitBoard = BitBoard.fromFen(fen);
+		Cache cache = (hash > 0) ? new Cache(hash) : null;
+		long start = System.nanoTime();
+		long nodes = divide(bitBoard, depth, threads, cache);
+		long elapsed = Math.max(1L, System.nanoTime() - start);
+
+		System.out.println();
+		System.out.println("Nos: " + nodes);
+		System.out.println("Tempo: " + elapsed / 1000000 + " ms");
+		System.out.println("Nos/s: " + nodes * 1000000000L / elapsed);
+	}
+
+	// prints the node count below each legal root move and returns the total
+	public static long divide(BitBoard bitBoard, int depth, int threads, Cache cache) {
+		// the position itself, with no root moves to list
+		if (depth < 1) {
+			return 1;
+		}
+		int[] moves = new int[Move.MAX_MOVES];
+		int count = bitBoard.generateLegalMoves(moves);
+		List<RootMove> roots = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			bitBoard.makeMove(moves[i]);
+			roots.add(new RootMove(moves[i], new BitBoard(bitBoard), depth - 1, cache));
+			bitBoard.unmakeMove();
+		}
+
+		if (threads > 1) {
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			try {
+				for (RootMove root : roots) {
+					pool.execute(root);
+				}
+			}
+			finally {
+				pool.shutdown();
+			}
+		}
+
+		long total = 0;
+		for (RootMove root : roots) {
+			long nodes = (threads > 1) ? root.join() : root.compute();
+			System.out.println(Move.toString(root.move) + ": " + nodes);
+			total += nodes;
+		}
+		return total;
+	}
+
+	public static long perft(BitBoard bitBoard, int depth) {
+		return perft(bitBoard, depth, new int[Math.max(depth, 1)][Move.MAX_MOVES], null);
+	}
+
+	private static long perft(BitBoard bitBoard, int depth, int[][] buffers, Cache cache) {
+		if (depth == 0) {
+			return 1;
+		}
+		if (cache != null && depth > 1) {
+			long cached = cache.probe(bitBoard.getKey(), depth);
+			if (cached >= 0) {
+				return cached;
+			}
+		}
+		int[] moves = buffers[depth - 1];
+		int count = bitBoard.generateLegalMoves(moves);
+		// every generated move is legal, so the last ply is counted without being played
+		if (depth == 1) {
+			return count;
+		}
+		long nodes = 0;
+		for (int i = 0; i < count; i++) {
+			bitBoard.makeMove(moves[i]);
+			nodes += perft(bitBoard, depth - 1, buffers, cache);
+			bitBoard.unmakeMove();
+		}
+		if (cache != null && depth > 1) {
+			cache.store(bitBoard.getKey(), depth, nodes);
+		}
+		return nodes;
+	}
+
+	private static class RootMove extends RecursiveTask<Long> {
+		private static final long serialVersionUID = 1L;
+
+		private final int move;
+		private final BitBoard bitBoard;
+		private final int depth;
+		private final Cache cache;
+
+		RootMove(int move, BitBoard bitBoard, int depth, Cache cache) {
+			this.move = move;
+			this.bitBoard = bitBoard;
+			this.depth = depth;
+			this.cache = cache;
+		}
+
+		@Override
+		protected Long compute() {
+			return perft(bitBoard, depth, new int[Math.max(depth, 1)][Move.MAX_MOVES], cache);
+		}
+	}
+
+	// subtree counts shared by all workers; each entry is key ^ data next to data, so racing writes read as misses
+	public static class Cache {
+		private final long[] table;
+		private final int mask;
+
+		public Cache(int megabytes) {
+			int entries = Integer.highestOneBit((int) Math.min(((long) megabytes << 20) / 16, 1 << 29));
+			table = new long[entries * 2];
+			mask = entries - 1;
+		}
+
+		// count stored for this position and depth, or -1
+		long probe(long key, int depth) {
+			int i = ((int) key & mask) * 2;
+			long data = table[i + 1];
+			if ((table[i] ^ data) == key && (int) (data >>> 56) == depth) {
+				return data & 0x00FFFFFFFFFFFFFFL;
+			}
+			return -1;
+		}
+
+		void store(long key, int depth, long nodes) {
+			int i = ((int) key & mask) * 2;
+			long data = nodes | ((long) depth << 56);
+			table[i] = key ^ data;
+			table[i + 1] = data;
+		}
+	}
+}
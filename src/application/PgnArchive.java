@@ -0,0 +1,56 @@
+package application;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import chess.BitBoard;
+import chess.archive.GameArchive;
+import chess.archive.GameArchiveWriter;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+
+public class PgnArchive {
+
+	// usage: PgnArchive <entrada.pgn> <saida.cga>
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("Uso: PgnArchive <entrada.pgn> <saida.cga>");
+			return;
+		}
+		Path in = Paths.get(args[0]);
+		Path out = Paths.get(args[1]);
+
+		long start = System.nanoTime();
+		int skipped = 0;
+		try (PgnReader reader = PgnReader.open(in); GameArchiveWriter writer = new GameArchiveWriter(out)) {
+			PgnGame game = new PgnGame();
+			while (reader.next(game)) {
+				if (!writer.add(game)) {
+					skipped++;
+					System.out.println(game);
+				}
+			}
+		}
+		long elapsed = Math.max(1L, System.nanoTime() - start);
+		long pgnSize = Files.size(in);
+		long archiveSize = Files.size(out);
+		System.out.println("Conversao: " + elapsed / 1000000 + " ms, " + skipped + " jogos invalidos ignorados");
+		System.out.println("PGN: " + pgnSize + " bytes, arquivo: " + archiveSize + " bytes ("
+				+ String.format("%.1f", (double) pgnSize / Math.max(1L, archiveSize)) + "x menor)");
+
+		// replaying every game measures what a batch job pays to read the archive
+		try (GameArchive archive = GameArchive.open(out)) {
+			BitBoard board = new BitBoard();
+			long moves = 0;
+			start = System.nanoTime();
+			for (int i = 0; i < archive.size(); i++) {
+				moves += archive.replay(i, board);
+			}
+			elapsed = Math.max(1L, System.nanoTime() - start);
+			System.out.println("Jogos: " + archive.size() + ", lances: " + moves);
+			System.out.println("Reproducao: " + elapsed / 1000000 + " ms, " + moves * 1000000000L / elapsed + " lances/s");
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package application;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.file.Paths;
+
+import chess.pgn.PgnValidator;
+
+public class PgnCheck {
+
+	// usage: PgnCheck <arquivo.pgn> [-threads N] [-all]
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.out.println("Uso: PgnCheck <arquivo.pgn> [-threads N] [-all]");
+			return;
+		}
+		int threads = Runtime.getRuntime().availableProcessors();
+		boolean all = false;
+		for (int i = 1; i < args.length; i++) {
+			if (args[i].equals("-threads")) {
+				threads = Integer.parseInt(args[++i]);
+			}
+			else if (args[i].equals("-all")) {
+				all = true;
+			}
+		}
+
+		PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16));
+		long[] counts = new long[2];
+		boolean printAll = all;
+		long start = System.nanoTime();
+		long games = new PgnValidator(threads).validate(Paths.get(args[0]), report -> {
+			if (!report.isValid()) {
+				counts[0]++;
+			}
+			if (report.isResultMismatch()) {
+				counts[1]++;
+			}
+			if (printAll || !report.isValid() || report.isResultMismatch()) {
+				out.println(report);
+			}
+		});
+		long elapsed = Math.max(1L, System.nanoTime() - start);
+
+		out.println();
+		out.println("Jogos: " + games);
+		out.println("Invalidos: " + counts[0]);
+		out.println("Resultados que nao conferem: " + counts[1]);
+		out.println("Tempo: " + elapsed / 1000000 + " ms");
+		out.println("Jogos/s: " + games * 1000000000L / elapsed);
+		out.flush();
+	}
+}
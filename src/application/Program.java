@@ -4,21 +4,72 @@ import chess.ChessException;
 import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.ChessPosition;
+import chess.Color;
+import chess.Move;
+import chess.TranspositionTable;
+import chess.book.PolyglotBook;
+import chess.engine.Search;
+import chess.tablebase.Tablebase;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.InputMismatchException;
 import java.util.List;
+import java.util.Random;
 import java.util.Scanner;
 
 public class Program {
 
+	// usage: Program [-cpu millis] [-book arquivo.bin] [-tb diretorio], with -cpu the computer plays the black
+	// pieces, answers from the Polyglot book while the position is in it and plays endgames from the tables
 	public static void main(String[] args) {
 		Scanner sc = new Scanner(System.in);
 		ChessMatch chmatch = new ChessMatch();
 		List<ChessPiece> captured = new ArrayList<>();
+		long cpuMillis = 0;
+		PolyglotBook book = null;
+		Tablebase tablebase = null;
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			if (args[i].equals("-cpu")) {
+				cpuMillis = Long.parseLong(args[i + 1]);
+			}
+			else if (args[i].equals("-book")) {
+				try {
+					book = PolyglotBook.open(Paths.get(args[i + 1]));
+				} catch (IOException | ChessException e) {
+					System.out.println("Livro de aberturas ignorado: " + e.getMessage());
+				}
+			}
+			else if (args[i].equals("-tb")) {
+				try {
+					tablebase = Tablebase.open(Paths.get(args[i + 1]));
+				} catch (IOException | ChessException e) {
+					System.out.println("Tabelas de finais ignoradas: " + e.getMessage());
+				}
+			}
+		}
+		TranspositionTable table = (cpuMillis > 0) ? new TranspositionTable(64) : null;
+		Random random = new Random();
 
-		while (!chmatch.getCheckMate()) {
+		while (!chmatch.getCheckMate() && !chmatch.getDraw()) {
 			try {
+				if (cpuMillis > 0 && chmatch.getCurrentPlayer() == Color.PRETO) {
+					int move = (book != null) ? book.chooseMove(chmatch.copyBitBoard(), random) : Move.NONE;
+					if (move == Move.NONE) {
+						Search search = new Search(chmatch.copyBitBoard(), table);
+						search.setTablebase(tablebase);
+						move = search.bestMoveInTime(cpuMillis);
+					}
+					if (move == Move.NONE) {
+						break;
+					}
+					ChessPiece capturedPiece = chmatch.performMove(move);
+					if (capturedPiece != null) {
+						captured.add(capturedPiece);
+					}
+					continue;
+				}
 				UI.clearScreen();
 				UI.printMatch(chmatch, captured);
 				System.out.println();
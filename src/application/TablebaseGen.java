@@ -0,0 +1,36 @@
+package application;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import chess.tablebase.Tablebase;
+import chess.tablebase.TablebaseGenerator;
+
+public class TablebaseGen {
+
+	// usage: TablebaseGen <diretorio> <material>... [-threads N], e.g. TablebaseGen tb KQK KRK KPK KBNK
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("Uso: TablebaseGen <diretorio> <material>... [-threads N]");
+			return;
+		}
+		int threads = Runtime.getRuntime().availableProcessors();
+		for (int i = 1; i < args.length - 1; i++) {
+			if (args[i].equals("-threads")) {
+				threads = Integer.parseInt(args[i + 1]);
+			}
+		}
+
+		Tablebase tablebase = Tablebase.open(Paths.get(args[0]));
+		TablebaseGenerator generator = new TablebaseGenerator(tablebase, threads, System.out);
+		long start = System.nanoTime();
+		for (int i = 1; i < args.length; i++) {
+			if (args[i].equals("-threads")) {
+				i++;
+				continue;
+			}
+			generator.generate(args[i]);
+		}
+		System.out.println("Total: " + (System.nanoTime() - start) / 1000000 + " ms");
+	}
+}
@@ -54,7 +54,15 @@ public class UI {
 		printCapturedPieces(captured);
 		System.out.println();
 		System.out.println("Rodada: " + chessMatch.getTurn());
-		if (!chessMatch.getCheckMate()) {
+		if (chessMatch.getCheckMate()) {
+			System.out.println(">>CHEQUE-MATE!!!<<");
+			System.out.println("O vencedor e: " + chessMatch.getCurrentPlayer());
+		}
+		else if (chessMatch.getDraw()) {
+			System.out.println(">>EMPATE!<<");
+			System.out.println("Motivo: " + drawReason(chessMatch));
+		}
+		else {
 			System.out.println("Esperando pelo jogador: " + chessMatch.getCurrentPlayer());
 
 			if (chessMatch.getCheck()) {
@@ -62,10 +70,19 @@ public class UI {
 				System.out.println(">>>CHEQUE!<<<");
 			}
 		}
-		else {
-			System.out.println(">>CHEQUE-MATE!!!<<");
-			System.out.println("O vencedor e: " + chessMatch.getCurrentPlayer());
+	}
+
+	private static String drawReason(ChessMatch chessMatch) {
+		if (chessMatch.getStalemate()) {
+			return "afogamento";
+		}
+		if (chessMatch.getInsufficientMaterial()) {
+			return "material insuficiente";
+		}
+		if (chessMatch.getThreefoldRepetition()) {
+			return "repeticao tripla";
 		}
+		return "regra dos 50 lances";
 	}
 
 	public static void printBoard(ChessPiece[][] pieces) {
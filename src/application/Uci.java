@@ -0,0 +1,334 @@
+package application;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import chess.BitBoard;
+import chess.ChessException;
+import chess.Move;
+import chess.TranspositionTable;
+import chess.book.PolyglotBook;
+import chess.engine.ParallelSearch;
+import chess.engine.Search;
+import chess.tablebase.Tablebase;
+
+// UCI front end for GUIs and tournament managers. The main thread only reads commands, the search runs on its
+// own thread, so stop and isready are answered while it thinks.
+public class Uci {
+
+	private static final int DEFAULT_HASH = 64;
+	private static final int MAX_HASH = 4096;
+	private static final int MAX_THREADS = 256;
+
+	// kept back from the clock for the GUI and the pipe
+	private static final long MOVE_OVERHEAD = 30;
+
+	private final PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16));
+	private BitBoard position = BitBoard.fromFen(BitBoard.START_FEN);
+	private final int[] moves = new int[Move.MAX_MOVES];
+	private final Random random = new Random();
+
+	private TranspositionTable table = new TranspositionTable(DEFAULT_HASH);
+	private int threads = 1;
+	private PolyglotBook book;
+	private Tablebase tablebase;
+
+	private Thread searchThread;
+	private volatile ParallelSearch search;
+	private final Object lock = new Object();
+	private boolean infinite;
+	private boolean stopRequested;
+
+	public static void main(String[] args) throws IOException {
+		new Uci().loop();
+	}
+
+	private void loop() throws IOException {
+		BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+		String line;
+		while ((line = in.readLine()) != null) {
+			String[] tokens = line.trim().split("\\s+");
+			try {
+				switch (tokens[0]) {
+				case "uci":
+					send("id name PRJ-ChessGame");
+					send("id author LucasMend0n");
+					send("option name Hash type spin default " + DEFAULT_HASH + " min 1 max " + MAX_HASH);
+					send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+					send("option name BookFile type string default <empty>");
+					send("option name TablebasePath type string default <empty>");
+					send("uciok");
+					break;
+				case "isready":
+					send("readyok");
+					break;
+				case "setoption":
+					stopSearch();
+					setOption(tokens);
+					break;
+				case "ucinewgame":
+					stopSearch();
+					table.clear();
+					break;
+				case "position":
+					stopSearch();
+					setPosition(tokens);
+					break;
+				case "go":
+					stopSearch();
+					go(tokens);
+					break;
+				case "stop":
+					stopSearch();
+					break;
+				case "quit":
+					stopSearch();
+					return;
+				default:
+					break;
+				}
+			} catch (ChessException | IllegalArgumentException | IOException e) {
+				send("info string " + e.getMessage());
+			}
+		}
+		stopSearch();
+	}
+
+	private void setOption(String[] tokens) throws IOException {
+		String name = value(tokens, "name", "value");
+		String value = value(tokens, "value", null);
+		if (name.equalsIgnoreCase("Hash")) {
+			table = new TranspositionTable(Math.max(1, Math.min(MAX_HASH, Integer.parseInt(value))));
+		}
+		else if (name.equalsIgnoreCase("Threads")) {
+			threads = Math.max(1, Math.min(MAX_THREADS, Integer.parseInt(value)));
+		}
+		else if (name.equalsIgnoreCase("BookFile")) {
+			book = (value.isEmpty() || value.equals("<empty>")) ? null : PolyglotBook.open(Paths.get(value));
+		}
+		else if (name.equalsIgnoreCase("TablebasePath")) {
+			tablebase = (value.isEmpty() || value.equals("<empty>")) ? null : Tablebase.open(Paths.get(value));
+		}
+	}
+
+	// the words after the key up to the next keyword, joined by spaces
+	private static String value(String[] tokens, String key, String next) {
+		StringBuilder sb = new StringBuilder();
+		boolean inside = false;
+		for (String token : tokens) {
+			if (token.equals(next)) {
+				break;
+			}
+			if (inside) {
+				sb.append((sb.length() > 0) ? " " : "").append(token);
+			}
+			inside |= token.equals(key);
+		}
+		return sb.toString();
+	}
+
+	// position startpos|fen <fen> [moves <move>...]; a bad FEN or move leaves the previous position in place
+	private void setPosition(String[] tokens) {
+		int i = 1;
+		BitBoard next;
+		if (tokens.length > 1 && tokens[1].equals("fen")) {
+			StringBuilder fen = new StringBuilder();
+			for (i = 2; i < tokens.length && !tokens[i].equals("moves"); i++) {
+				fen.append(tokens[i]).append(' ');
+			}
+			// loadFen also insists on one king per side, which the search needs
+			next = BitBoard.fromFen(fen);
+		}
+		else {
+			next = BitBoard.fromFen(BitBoard.START_FEN);
+			i = 2;
+		}
+		if (i < tokens.length && tokens[i].equals("moves")) {
+			for (i++; i < tokens.length; i++) {
+				int move = findMove(next, tokens[i]);
+				if (move == Move.NONE) {
+					throw new ChessException("Lance invalido: " + tokens[i]);
+				}
+				next.makeMove(move);
+			}
+		}
+		position = next;
+	}
+
+	private int findMove(BitBoard board, String text) {
+		int count = board.generateLegalMoves(moves);
+		for (int i = 0; i < count; i++) {
+			if (Move.toString(moves[i]).equals(text)) {
+				return moves[i];
+			}
+		}
+		return Move.NONE;
+	}
+
+	private void go(String[] tokens) {
+		long time = 0;
+		long increment = 0;
+		long moveTime = 0;
+		int movesToGo = 0;
+		int depth = 0;
+		boolean untilStop = false;
+		boolean white = position.getSideToMove() == BitBoard.WHITE;
+		for (int i = 1; i < tokens.length; i++) {
+			String token = tokens[i];
+			if (token.equals("infinite") || token.equals("ponder")) {
+				untilStop = true;
+				continue;
+			}
+			if (i + 1 >= tokens.length) {
+				break;
+			}
+			switch (token) {
+			case "wtime":
+			case "btime":
+				if (token.equals("wtime") == white) {
+					time = Long.parseLong(tokens[i + 1]);
+				}
+				i++;
+				break;
+			case "winc":
+			case "binc":
+				if (token.equals("winc") == white) {
+					increment = Long.parseLong(tokens[i + 1]);
+				}
+				i++;
+				break;
+			case "movestogo":
+				movesToGo = Integer.parseInt(tokens[++i]);
+				break;
+			case "movetime":
+				moveTime = Long.parseLong(tokens[++i]);
+				break;
+			case "depth":
+				depth = Integer.parseInt(tokens[++i]);
+				break;
+			default:
+				break;
+			}
+		}
+
+		long millis = 0;
+		if (moveTime > 0) {
+			millis = Math.max(1, moveTime - MOVE_OVERHEAD);
+		}
+		else if (time > 0 && !untilStop) {
+			// an even share of the clock for the moves left, plus most of the increment
+			long share = time / ((movesToGo > 0) ? movesToGo : 30) + increment * 3 / 4;
+			millis = Math.max(1, Math.min(share, time - MOVE_OVERHEAD));
+		}
+		int maxDepth = (depth > 0) ? depth : Search.MAX_PLY - 1;
+
+		if (book != null && !untilStop) {
+			int move = book.chooseMove(new BitBoard(position), random);
+			if (move != Move.NONE) {
+				send("info string livro de aberturas");
+				send("bestmove " + Move.toString(move));
+				return;
+			}
+		}
+
+		ParallelSearch next = new ParallelSearch(position, threads, table);
+		next.setTablebase(tablebase);
+		next.setListener(worker -> info(next, worker));
+		synchronized (lock) {
+			infinite = untilStop;
+			stopRequested = false;
+		}
+		search = next;
+		long limit = millis;
+		searchThread = new Thread(() -> think(next, maxDepth, limit), "uci-search");
+		searchThread.setDaemon(true);
+		searchThread.start();
+	}
+
+	// runs on the search thread
+	private void think(ParallelSearch search, int maxDepth, long millis) {
+		int move = Move.NONE;
+		try {
+			move = (millis > 0) ? search.bestMoveInTime(millis) : search.bestMove(maxDepth);
+			// under go infinite the answer waits for stop, even when the search is over early
+			synchronized (lock) {
+				while (infinite && !stopRequested) {
+					try {
+						lock.wait();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						break;
+					}
+				}
+			}
+		} finally {
+			// GUIs wait for the answer whatever happened, and take 0000 when there is no move to give
+			if (move == Move.NONE) {
+				send("bestmove 0000");
+			}
+			else {
+				int[] pv = new int[2];
+				int length = search.getPrincipalVariation(pv);
+				send("bestmove " + Move.toString(move) + ((length > 1) ? " ponder " + Move.toString(pv[1]) : ""));
+			}
+		}
+	}
+
+	private void info(ParallelSearch search, Search worker) {
+		StringBuilder sb = new StringBuilder("info depth ").append(worker.getDepth());
+		int score = worker.getScore();
+		if (Math.abs(score) >= Search.MATE - Search.MAX_PLY) {
+			int plies = Search.MATE - Math.abs(score);
+			sb.append(" score mate ").append((score > 0) ? (plies + 1) / 2 : -(plies / 2));
+		}
+		else {
+			sb.append(" score cp ").append(score);
+		}
+		long nodes = search.getNodes();
+		long elapsed = Math.max(1L, worker.getElapsedMillis());
+		sb.append(" nodes ").append(nodes).append(" nps ").append(nodes * 1000 / elapsed).append(" time ").append(elapsed);
+		sb.append(" hashfull ").append(search.getHashfull());
+		int[] pv = new int[Search.MAX_PLY];
+		int length = worker.getPrincipalVariation(pv);
+		if (length > 0) {
+			sb.append(" pv");
+			for (int i = 0; i < length; i++) {
+				sb.append(' ').append(Move.toString(pv[i]));
+			}
+		}
+		send(sb.toString());
+	}
+
+	// stops a running search and waits for its bestmove, so the next command sees a quiet engine
+	private void stopSearch() {
+		if (searchThread == null) {
+			return;
+		}
+		synchronized (lock) {
+			stopRequested = true;
+			lock.notifyAll();
+		}
+		try {
+			// a stop that reaches the search before it starts is reset by it, so keep sending until it ends
+			while (searchThread.isAlive()) {
+				search.stop();
+				searchThread.join(10);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		searchThread = null;
+	}
+
+	// the search thread and the reader both write; each line goes out whole and at once
+	private synchronized void send(String line) {
+		out.println(line);
+		out.flush();
+	}
+}
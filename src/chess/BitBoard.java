@@ -0,0 +1,1016 @@
+package chess;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+public class BitBoard {
+
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    public static final int NONE = -1;
+
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = 15;
+
+    // -Dchess.debugKeys=true recomputes the key and the evaluation from scratch after every make/unmake and compares
+    private static final boolean DEBUG_KEYS = Boolean.getBoolean("chess.debugKeys");
+
+    // rights that survive a move from or to each square; only the king and rook home squares clear any
+    private static final int[] CASTLING_MASK = new int[64];
+
+    // a1 is a dark square
+    // FEN letter of each piece code
+    private static final String PIECE_LETTERS = "PNBRQKpnbrqk";
+
+    private static final long LIGHT_SQUARES = 0xAA55AA55AA55AA55L;
+
+    static {
+        Arrays.fill(CASTLING_MASK, ALL_CASTLING);
+        CASTLING_MASK[0] &= ~WHITE_QUEENSIDE;
+        CASTLING_MASK[7] &= ~WHITE_KINGSIDE;
+        CASTLING_MASK[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASK[56] &= ~BLACK_QUEENSIDE;
+        CASTLING_MASK[63] &= ~BLACK_KINGSIDE;
+        CASTLING_MASK[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+    }
+
+    // one word per color and piece type, indexed by code(color, type); square 0 is a1 and 63 is h8
+    private final long[] pieces = new long[12];
+    private final long[] colors = new long[2];
+    private long occupied;
+    private final byte[] mailbox = new byte[64];
+
+    // squares of each piece code, kept dense by swapping the last entry into a removed slot
+    private final int[][] pieceList = new int[12][16];
+    private final int[] pieceCount = new int[12];
+    private final byte[] listIndex = new byte[64];
+    private final int[] kingSquare = { 64, 64 };
+
+    private int sideToMove = WHITE;
+    private int castlingRights;
+    private int enPassantSquare = NONE;
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
+    private long key;
+
+    // running sums of Evaluation.MG, EG and PHASE over the pieces on the board, white positive
+    private int mgScore;
+    private int egScore;
+    private int phase;
+
+    // undo stack, one entry per ply: the move and the state it cannot be recomputed from
+    private int[] moveStack = new int[256];
+    private long[] stateStack = new long[256];
+    private long[] keyStack = new long[256];
+    private int ply;
+
+    // how often each earlier position of the game occurred, by key: open addressing with linear probing, so
+    // checking for a repetition costs one lookup instead of a walk back through the key history
+    private long[] historyKeys = new long[1024];
+    private int[] historyCounts = new int[1024];
+    private int historySize;
+
+    public BitBoard() {
+        Arrays.fill(mailbox, (byte) NONE);
+    }
+
+    // independent copy, history included, for another thread or a search that must not disturb the original
+    public BitBoard(BitBoard other) {
+        System.arraycopy(other.pieces, 0, pieces, 0, 12);
+        System.arraycopy(other.colors, 0, colors, 0, 2);
+        occupied = other.occupied;
+        System.arraycopy(other.mailbox, 0, mailbox, 0, 64);
+        for (int code = 0; code < 12; code++) {
+            System.arraycopy(other.pieceList[code], 0, pieceList[code], 0, 16);
+        }
+        System.arraycopy(other.pieceCount, 0, pieceCount, 0, 12);
+        System.arraycopy(other.listIndex, 0, listIndex, 0, 64);
+        System.arraycopy(other.kingSquare, 0, kingSquare, 0, 2);
+        sideToMove = other.sideToMove;
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        key = other.key;
+        mgScore = other.mgScore;
+        egScore = other.egScore;
+        phase = other.phase;
+        moveStack = other.moveStack.clone();
+        stateStack = other.stateStack.clone();
+        keyStack = other.keyStack.clone();
+        ply = other.ply;
+        historyKeys = other.historyKeys.clone();
+        historyCounts = other.historyCounts.clone();
+        historySize = other.historySize;
+    }
+
+    public static BitBoard fromFen(CharSequence fen) {
+        BitBoard bitBoard = new BitBoard();
+        bitBoard.loadFen(fen);
+        return bitBoard;
+    }
+
+    // replaces the position and forgets the move history; the text is read in place, so nothing is allocated
+    public void loadFen(CharSequence fen) {
+        clear();
+        int length = fen.length();
+        int i = skipSpaces(fen, 0);
+        int rank = 7;
+        int file = 0;
+        for (; i < length && !isSpace(fen.charAt(i)); i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (file != 8 || rank == 0) {
+                    throw invalidFen(fen);
+                }
+                rank--;
+                file = 0;
+            }
+            else if (c >= '1' && c <= '8') {
+                file += c - '0';
+            }
+            else {
+                int type = pieceType(c);
+                if (type == NONE || file > 7) {
+                    throw invalidFen(fen);
+                }
+                int code = code((c < 'a') ? WHITE : BLACK, type);
+                // the piece lists hold 16 of a kind, and a pawn on the first or last rank has no moves to generate
+                if (pieceCount[code] == 16 || (type == PAWN && (rank == 0 || rank == 7))) {
+                    throw invalidFen(fen);
+                }
+                put(rank * 8 + file, code);
+                file++;
+            }
+            if (file > 8) {
+                throw invalidFen(fen);
+            }
+        }
+        if (rank != 0 || file != 8) {
+            throw invalidFen(fen);
+        }
+        if (pieceCount[code(WHITE, KING)] != 1 || pieceCount[code(BLACK, KING)] != 1) {
+            throw new ChessException("FEN invalida, cada lado precisa de um rei: " + fen);
+        }
+
+        i = skipSpaces(fen, i);
+        if (i >= length || (fen.charAt(i) != 'w' && fen.charAt(i) != 'b')) {
+            throw invalidFen(fen);
+        }
+        setSideToMove((fen.charAt(i++) == 'b') ? BLACK : WHITE);
+
+        i = skipSpaces(fen, i);
+        int rights = 0;
+        for (; i < length && !isSpace(fen.charAt(i)); i++) {
+            switch (fen.charAt(i)) {
+            case 'K': rights |= WHITE_KINGSIDE; break;
+            case 'Q': rights |= WHITE_QUEENSIDE; break;
+            case 'k': rights |= BLACK_KINGSIDE; break;
+            case 'q': rights |= BLACK_QUEENSIDE; break;
+            case '-': break;
+            default: throw invalidFen(fen);
+            }
+        }
+        // a right whose king or rook left its home square could only castle with a piece that is not there
+        setCastlingRights(rights & homeRights(WHITE) & homeRights(BLACK));
+
+        i = skipSpaces(fen, i);
+        if (i >= length) {
+            throw invalidFen(fen);
+        }
+        if (fen.charAt(i) == '-') {
+            i++;
+        }
+        else {
+            if (i + 1 >= length || fen.charAt(i) < 'a' || fen.charAt(i) > 'h' || fen.charAt(i + 1) < '1' || fen.charAt(i + 1) > '8') {
+                throw invalidFen(fen);
+            }
+            int square = (fen.charAt(i + 1) - '1') * 8 + (fen.charAt(i) - 'a');
+            // kept only behind a pawn that could just have pushed two squares and when a pawn can take it, as
+            // makeMove does
+            int pawn = square + ((sideToMove == WHITE) ? -8 : 8);
+            if ((square >>> 3) == ((sideToMove == WHITE) ? 5 : 2) && mailbox[pawn] == code(1 - sideToMove, PAWN)
+                    && mailbox[square] == NONE && mailbox[square + (square - pawn)] == NONE
+                    && (Attacks.pawn(1 - sideToMove, square) & pieces[code(sideToMove, PAWN)]) != 0) {
+                setEnPassantSquare(square);
+            }
+            i += 2;
+        }
+
+        // the side that just moved cannot have left its king attacked
+        if (inCheck(1 - sideToMove)) {
+            throw new ChessException("FEN invalida, o lado que nao joga esta em cheque: " + fen);
+        }
+
+        // the move counters are optional
+        i = skipSpaces(fen, i);
+        if (i < length) {
+            int end = skipNumber(fen, i);
+            halfmoveClock = parseNumber(fen, i, end);
+            i = skipSpaces(fen, end);
+            end = skipNumber(fen, i);
+            fullmoveNumber = Math.max(1, parseNumber(fen, i, end));
+        }
+    }
+
+    // the castling rights of one color that its king and rooks still allow; the other color's are kept
+    private int homeRights(int color) {
+        int kingside = (color == WHITE) ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+        int queenside = (color == WHITE) ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+        int home = (color == WHITE) ? 0 : 56;
+        int rights = ALL_CASTLING;
+        if (mailbox[home + 4] != code(color, KING)) {
+            rights &= ~(kingside | queenside);
+        }
+        if (mailbox[home + 7] != code(color, ROOK)) {
+            rights &= ~kingside;
+        }
+        if (mailbox[home] != code(color, ROOK)) {
+            rights &= ~queenside;
+        }
+        return rights;
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private static int skipSpaces(CharSequence fen, int i) {
+        while (i < fen.length() && isSpace(fen.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipNumber(CharSequence fen, int i) {
+        while (i < fen.length() && !isSpace(fen.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int parseNumber(CharSequence fen, int start, int end) {
+        if (start == end || end - start > 6) {
+            throw invalidFen(fen);
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = fen.charAt(i);
+            if (c < '0' || c > '9') {
+                throw invalidFen(fen);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int pieceType(char c) {
+        switch (c) {
+        case 'P': case 'p': return PAWN;
+        case 'N': case 'n': return KNIGHT;
+        case 'B': case 'b': return BISHOP;
+        case 'R': case 'r': return ROOK;
+        case 'Q': case 'q': return QUEEN;
+        case 'K': case 'k': return KING;
+        default: return NONE;
+        }
+    }
+
+    private static ChessException invalidFen(CharSequence fen) {
+        return new ChessException("FEN invalida: " + fen);
+    }
+
+    // all six fields, written a character at a time so a reused StringBuilder or Writer sees no garbage
+    public void toFen(Appendable out) throws IOException {
+        appendFen(out, mailbox, sideToMove, castlingRights, enPassantSquare, halfmoveClock, fullmoveNumber);
+    }
+
+    // shared with PositionSnapshot, which keeps the same state without the rest of the board
+    static void appendFen(Appendable out, byte[] mailbox, int sideToMove, int castlingRights, int enPassantSquare,
+            int halfmoveClock, int fullmoveNumber) throws IOException {
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                int code = mailbox[rank * 8 + file];
+                if (code == NONE) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    out.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                out.append(PIECE_LETTERS.charAt(code));
+            }
+            if (empty > 0) {
+                out.append((char) ('0' + empty));
+            }
+            if (rank > 0) {
+                out.append('/');
+            }
+        }
+        out.append(' ').append((sideToMove == WHITE) ? 'w' : 'b').append(' ');
+        if (castlingRights == 0) {
+            out.append('-');
+        }
+        else {
+            for (int i = 0; i < 4; i++) {
+                if ((castlingRights & (1 << i)) != 0) {
+                    out.append("KQkq".charAt(i));
+                }
+            }
+        }
+        out.append(' ');
+        if (enPassantSquare == NONE) {
+            out.append('-');
+        }
+        else {
+            out.append((char) ('a' + (enPassantSquare & 7))).append((char) ('1' + (enPassantSquare >>> 3)));
+        }
+        out.append(' ');
+        appendNumber(out, halfmoveClock);
+        out.append(' ');
+        appendNumber(out, fullmoveNumber);
+    }
+
+    public String toFen() {
+        StringBuilder sb = new StringBuilder(90);
+        try {
+            toFen(sb);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    private static void appendNumber(Appendable out, int value) throws IOException {
+        if (value >= 10) {
+            appendNumber(out, value / 10);
+        }
+        out.append((char) ('0' + value % 10));
+    }
+
+    // empty board, white to move, no history
+    public void clear() {
+        Arrays.fill(pieces, 0L);
+        colors[WHITE] = 0L;
+        colors[BLACK] = 0L;
+        occupied = 0L;
+        Arrays.fill(mailbox, (byte) NONE);
+        Arrays.fill(pieceCount, 0);
+        kingSquare[WHITE] = 64;
+        kingSquare[BLACK] = 64;
+        sideToMove = WHITE;
+        castlingRights = 0;
+        enPassantSquare = NONE;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        key = 0L;
+        mgScore = 0;
+        egScore = 0;
+        phase = 0;
+        ply = 0;
+        if (historySize > 0) {
+            Arrays.fill(historyCounts, 0);
+            historySize = 0;
+        }
+    }
+
+    public static int code(int color, int type) {
+        return color * 6 + type;
+    }
+
+    public static int colorOf(int code) {
+        return code < 6 ? WHITE : BLACK;
+    }
+
+    public static int typeOf(int code) {
+        return code % 6;
+    }
+
+    public static int colorIndex(Color color) {
+        return (color == Color.BRANCO) ? WHITE : BLACK;
+    }
+
+    public static int square(int row, int column) {
+        return (7 - row) * 8 + column;
+    }
+
+    public static int row(int square) {
+        return 7 - (square >>> 3);
+    }
+
+    public static int column(int square) {
+        return square & 7;
+    }
+
+    public void put(int square, int code) {
+        if (mailbox[square] != NONE) {
+            throw new ChessException("Ja ha uma peca na casa " + square);
+        }
+        long bit = 1L << square;
+        pieces[code] |= bit;
+        colors[colorOf(code)] |= bit;
+        occupied |= bit;
+        mailbox[square] = (byte) code;
+        key ^= Zobrist.PIECES[code][square];
+        mgScore += Evaluation.MG[code][square];
+        egScore += Evaluation.EG[code][square];
+        phase += Evaluation.PHASE[code];
+
+        int index = pieceCount[code]++;
+        pieceList[code][index] = square;
+        listIndex[square] = (byte) index;
+        if (typeOf(code) == KING) {
+            kingSquare[colorOf(code)] = square;
+        }
+    }
+
+    public int remove(int square) {
+        int code = mailbox[square];
+        if (code == NONE) {
+            return NONE;
+        }
+        long bit = ~(1L << square);
+        pieces[code] &= bit;
+        colors[colorOf(code)] &= bit;
+        occupied &= bit;
+        mailbox[square] = (byte) NONE;
+        key ^= Zobrist.PIECES[code][square];
+        mgScore -= Evaluation.MG[code][square];
+        egScore -= Evaluation.EG[code][square];
+        phase -= Evaluation.PHASE[code];
+
+        int last = pieceList[code][--pieceCount[code]];
+        int index = listIndex[square];
+        pieceList[code][index] = last;
+        listIndex[last] = (byte) index;
+        if (typeOf(code) == KING) {
+            kingSquare[colorOf(code)] = 64;
+        }
+        return code;
+    }
+
+    public int pieceAt(int square) {
+        return mailbox[square];
+    }
+
+    // the piece code of every square, NONE where empty
+    byte[] copyMailbox() {
+        return mailbox.clone();
+    }
+
+    public long pieces(int color, int type) {
+        return pieces[code(color, type)];
+    }
+
+    public long occupancy(int color) {
+        return colors[color];
+    }
+
+    public long occupied() {
+        return occupied;
+    }
+
+    public int pieceCount(int color, int type) {
+        return pieceCount[code(color, type)];
+    }
+
+    // square of the index-th piece of this color and type, 0 <= index < pieceCount(color, type)
+    public int pieceSquare(int color, int type, int index) {
+        return pieceList[code(color, type)][index];
+    }
+
+    // 64 when that king is not on the board
+    public int kingSquare(int color) {
+        return kingSquare[color];
+    }
+
+    // looks outward from the square with each piece's attack pattern instead of generating the attacker's moves
+    public boolean isSquareAttacked(int square, int byColor) {
+        long[] p = pieces;
+        int base = code(byColor, PAWN);
+        if ((Attacks.pawn(1 - byColor, square) & p[base + PAWN]) != 0
+                || (Attacks.knight(square) & p[base + KNIGHT]) != 0
+                || (Attacks.king(square) & p[base + KING]) != 0) {
+            return true;
+        }
+        long queens = p[base + QUEEN];
+        return (Attacks.bishop(square, occupied) & (p[base + BISHOP] | queens)) != 0
+                || (Attacks.rook(square, occupied) & (p[base + ROOK] | queens)) != 0;
+    }
+
+    public boolean inCheck(int color) {
+        return isSquareAttacked(kingSquare[color], 1 - color);
+    }
+
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    public void setSideToMove(int sideToMove) {
+        if (sideToMove != this.sideToMove) {
+            key ^= Zobrist.SIDE;
+        }
+        this.sideToMove = sideToMove;
+    }
+
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    public void setCastlingRights(int castlingRights) {
+        key ^= Zobrist.CASTLING[this.castlingRights] ^ Zobrist.CASTLING[castlingRights];
+        this.castlingRights = castlingRights;
+    }
+
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    public void setEnPassantSquare(int enPassantSquare) {
+        if (this.enPassantSquare != NONE) {
+            key ^= Zobrist.EN_PASSANT[this.enPassantSquare & 7];
+        }
+        if (enPassantSquare != NONE) {
+            key ^= Zobrist.EN_PASSANT[enPassantSquare & 7];
+        }
+        this.enPassantSquare = enPassantSquare;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    // Zobrist key of the position, kept up to date by every change to pieces or state
+    public long getKey() {
+        return key;
+    }
+
+    public long computeKey() {
+        long k = 0L;
+        for (int square = 0; square < 64; square++) {
+            if (mailbox[square] != NONE) {
+                k ^= Zobrist.PIECES[mailbox[square]][square];
+            }
+        }
+        k ^= Zobrist.CASTLING[castlingRights];
+        if (enPassantSquare != NONE) {
+            k ^= Zobrist.EN_PASSANT[enPassantSquare & 7];
+        }
+        if (sideToMove == BLACK) {
+            k ^= Zobrist.SIDE;
+        }
+        return k;
+    }
+
+    // tapered material and piece-square score from the side to move's point of view
+    public int evaluate() {
+        int score = Evaluation.tapered(mgScore, egScore, phase);
+        return (sideToMove == WHITE) ? score : -score;
+    }
+
+    public int computeEvaluation() {
+        int mg = 0;
+        int eg = 0;
+        int p = 0;
+        for (int square = 0; square < 64; square++) {
+            int code = mailbox[square];
+            if (code != NONE) {
+                mg += Evaluation.MG[code][square];
+                eg += Evaluation.EG[code][square];
+                p += Evaluation.PHASE[code];
+            }
+        }
+        int score = Evaluation.tapered(mg, eg, p);
+        return (sideToMove == WHITE) ? score : -score;
+    }
+
+    public int getPly() {
+        return ply;
+    }
+
+    public int lastMove() {
+        return (ply == 0) ? Move.NONE : moveStack[ply - 1];
+    }
+
+    // times the current position occurred before in this game, with the same side to move and rights
+    public int repetitions() {
+        int mask = historyKeys.length - 1;
+        for (int i = (int) key & mask; historyCounts[i] != 0; i = (i + 1) & mask) {
+            if (historyKeys[i] == key) {
+                return historyCounts[i];
+            }
+        }
+        return 0;
+    }
+
+    public boolean isRepetition() {
+        return repetitions() > 0;
+    }
+
+    public boolean isThreefoldRepetition() {
+        return repetitions() >= 2;
+    }
+
+    public boolean isFiftyMoveRule() {
+        return halfmoveClock >= 100;
+    }
+
+    // no sequence of moves can end in mate: bare kings, a single minor piece, or bishops all on one square color
+    public boolean isInsufficientMaterial() {
+        long majorsAndPawns = pieces[code(WHITE, PAWN)] | pieces[code(BLACK, PAWN)] | pieces[code(WHITE, ROOK)]
+                | pieces[code(BLACK, ROOK)] | pieces[code(WHITE, QUEEN)] | pieces[code(BLACK, QUEEN)];
+        if (majorsAndPawns != 0) {
+            return false;
+        }
+        int knights = pieceCount[code(WHITE, KNIGHT)] + pieceCount[code(BLACK, KNIGHT)];
+        long bishops = pieces[code(WHITE, BISHOP)] | pieces[code(BLACK, BISHOP)];
+        if (knights == 0) {
+            return (bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0;
+        }
+        return knights == 1 && bishops == 0;
+    }
+
+    private void addHistory(long k) {
+        if (historySize * 2 >= historyKeys.length) {
+            growHistory();
+        }
+        int mask = historyKeys.length - 1;
+        int i = (int) k & mask;
+        while (historyCounts[i] != 0 && historyKeys[i] != k) {
+            i = (i + 1) & mask;
+        }
+        if (historyCounts[i] == 0) {
+            historyKeys[i] = k;
+            historySize++;
+        }
+        historyCounts[i]++;
+    }
+
+    private void removeHistory(long k) {
+        int mask = historyKeys.length - 1;
+        int i = (int) k & mask;
+        while (historyKeys[i] != k || historyCounts[i] == 0) {
+            i = (i + 1) & mask;
+        }
+        if (--historyCounts[i] > 0) {
+            return;
+        }
+        historySize--;
+        // shift later entries of the probe run back into the hole, so lookups never need tombstones
+        int hole = i;
+        for (int j = (i + 1) & mask; historyCounts[j] != 0; j = (j + 1) & mask) {
+            int home = (int) historyKeys[j] & mask;
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                historyKeys[hole] = historyKeys[j];
+                historyCounts[hole] = historyCounts[j];
+                historyCounts[j] = 0;
+                hole = j;
+            }
+        }
+    }
+
+    private void growHistory() {
+        long[] keys = historyKeys;
+        int[] counts = historyCounts;
+        historyKeys = new long[keys.length * 2];
+        historyCounts = new int[keys.length * 2];
+        int mask = historyKeys.length - 1;
+        for (int j = 0; j < keys.length; j++) {
+            if (counts[j] != 0) {
+                int i = (int) keys[j] & mask;
+                while (historyCounts[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                historyKeys[i] = keys[j];
+                historyCounts[i] = counts[j];
+            }
+        }
+    }
+
+    public void makeMove(int move) {
+        if (ply == moveStack.length) {
+            moveStack = Arrays.copyOf(moveStack, ply * 2);
+            stateStack = Arrays.copyOf(stateStack, ply * 2);
+            keyStack = Arrays.copyOf(keyStack, ply * 2);
+        }
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flags = Move.flags(move);
+        int us = sideToMove;
+
+        keyStack[ply] = key;
+        addHistory(key);
+        int captured = ((flags & Move.EN_PASSANT) != 0) ? remove(to + ((us == WHITE) ? -8 : 8)) : remove(to);
+        moveStack[ply] = move;
+        stateStack[ply] = (captured + 1) | (castlingRights << 4) | ((enPassantSquare + 1) << 8) | ((long) halfmoveClock << 16);
+        ply++;
+
+        int code = remove(from);
+        put(to, Move.isPromotion(move) ? code(us, Move.promotion(move)) : code);
+
+        //special move castling, the rook jumps to the square the king crossed
+        if ((flags & Move.CASTLING) != 0) {
+            put((from + to) >>> 1, remove((to > from) ? from + 3 : from - 4));
+        }
+
+        setCastlingRights(castlingRights & CASTLING_MASK[from] & CASTLING_MASK[to]);
+        // the square only counts when an enemy pawn can take on it, as in Polyglot keys: otherwise the same
+        // position would have two keys and repetitions through a double push would go unseen
+        int enPassant = NONE;
+        if ((flags & Move.DOUBLE_PUSH) != 0 && (Attacks.pawn(us, (from + to) >>> 1) & pieces[code(1 - us, PAWN)]) != 0) {
+            enPassant = (from + to) >>> 1;
+        }
+        setEnPassantSquare(enPassant);
+        halfmoveClock = (typeOf(code) == PAWN || captured != NONE) ? 0 : halfmoveClock + 1;
+        if (us == BLACK) {
+            fullmoveNumber++;
+        }
+        sideToMove = 1 - us;
+        key ^= Zobrist.SIDE;
+        if (DEBUG_KEYS) {
+            checkKey();
+        }
+    }
+
+    public void unmakeMove() {
+        ply--;
+        int move = moveStack[ply];
+        long state = stateStack[ply];
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flags = Move.flags(move);
+        int us = 1 - sideToMove;
+
+        int code = remove(to);
+        put(from, Move.isPromotion(move) ? code(us, PAWN) : code);
+
+        if ((flags & Move.CASTLING) != 0) {
+            put((to > from) ? from + 3 : from - 4, remove((from + to) >>> 1));
+        }
+
+        int captured = (int) (state & 15) - 1;
+        if (captured != NONE) {
+            put(((flags & Move.EN_PASSANT) != 0) ? to + ((us == WHITE) ? -8 : 8) : to, captured);
+        }
+
+        castlingRights = (int) (state >>> 4) & 15;
+        enPassantSquare = (int) ((state >>> 8) & 127) - 1;
+        halfmoveClock = (int) (state >>> 16);
+        if (us == BLACK) {
+            fullmoveNumber--;
+        }
+        sideToMove = us;
+        key = keyStack[ply];
+        removeHistory(key);
+        if (DEBUG_KEYS) {
+            checkKey();
+        }
+    }
+
+    private void checkKey() {
+        long expected = computeKey();
+        if (key != expected) {
+            throw new IllegalStateException("Chave Zobrist incremental " + Long.toHexString(key) + " difere da recalculada " + Long.toHexString(expected));
+        }
+        if (evaluate() != computeEvaluation()) {
+            throw new IllegalStateException("Avaliacao incremental " + evaluate() + " difere da recalculada " + computeEvaluation());
+        }
+    }
+
+    // swaps the piece the last move promoted to, for when the player picks something other than the queen
+    public void changePromotion(int type) {
+        int move = lastMove();
+        if (!Move.isPromotion(move)) {
+            throw new IllegalStateException("O ultimo lance nao foi uma promocao!");
+        }
+        int to = Move.to(move);
+        put(to, code(colorOf(remove(to)), type));
+        moveStack[ply - 1] = Move.of(Move.from(move), to, Move.flags(move), type);
+    }
+
+    // pseudo-legal moves of the side to move: the caller still has to reject those that leave the king attacked
+    public int generateMoves(int[] moves) {
+        return generate(moves, false, false);
+    }
+
+    // pseudo-legal captures and promotions only, for quiescence search
+    public int generateCaptures(int[] moves) {
+        return generate(moves, true, false);
+    }
+
+    // strictly legal moves: pins and checks are worked out up front, so no move needs to be tried
+    public int generateLegalMoves(int[] moves) {
+        return generate(moves, false, true);
+    }
+
+    public int generateLegalCaptures(int[] moves) {
+        return generate(moves, true, true);
+    }
+
+    private int generate(int[] moves, boolean capturesOnly, boolean legal) {
+        int us = sideToMove;
+        int them = 1 - us;
+        long own = colors[us];
+        long enemy = colors[them];
+        long empty = ~occupied;
+        int king = kingSquare[us];
+        int count = 0;
+
+        // target squares that deal with a check, and own pieces that may only move along the line to their king
+        long checkers = 0L;
+        long checkMask = ~0L;
+        long pinned = 0L;
+        if (legal) {
+            checkers = attackers(king, them, occupied);
+            pinned = pinned(us);
+            if (checkers != 0) {
+                checkMask = checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+            }
+            // with two checkers only the king can move
+            if ((checkers & (checkers - 1)) != 0) {
+                return addKingMoves(moves, count, king, capturesOnly ? enemy : ~own, them);
+            }
+        }
+
+        int forward = (us == WHITE) ? 8 : -8;
+        long startRank = (us == WHITE) ? 0x000000000000FF00L : 0x00FF000000000000L;
+        long pushes = capturesOnly ? 0xFF000000000000FFL : ~0L;
+        long pawns = pieces[code(us, PAWN)];
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            long allowed = checkMask & (((pinned & (1L << from)) != 0) ? Attacks.line(king, from) : ~0L);
+            int to = from + forward;
+            if ((empty & (1L << to)) != 0) {
+                if ((pushes & allowed & (1L << to)) != 0) {
+                    count = addPawnMoves(moves, count, from, to, 0);
+                }
+                if (!capturesOnly && ((1L << from) & startRank) != 0 && (empty & allowed & (1L << (to + forward))) != 0) {
+                    moves[count++] = Move.of(from, to + forward, Move.DOUBLE_PUSH, PAWN);
+                }
+            }
+            long captures = Attacks.pawn(us, from) & enemy & allowed;
+            while (captures != 0) {
+                count = addPawnMoves(moves, count, from, Long.numberOfTrailingZeros(captures), Move.CAPTURE);
+                captures &= captures - 1;
+            }
+            if (enPassantSquare != NONE && (Attacks.pawn(us, from) & (1L << enPassantSquare)) != 0
+                    && (!legal || isLegalEnPassant(from, us))) {
+                moves[count++] = Move.of(from, enPassantSquare, Move.CAPTURE | Move.EN_PASSANT, PAWN);
+            }
+        }
+
+        long targetMask = (capturesOnly ? enemy : ~own) & checkMask;
+        for (int type = KNIGHT; type <= QUEEN; type++) {
+            long bits = pieces[code(us, type)];
+            while (bits != 0) {
+                int from = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                long targets = attacks(type, from, occupied) & targetMask;
+                if ((pinned & (1L << from)) != 0) {
+                    targets &= Attacks.line(king, from);
+                }
+                while (targets != 0) {
+                    int to = Long.numberOfTrailingZeros(targets);
+                    targets &= targets - 1;
+                    moves[count++] = Move.of(from, to, ((enemy & (1L << to)) != 0) ? Move.CAPTURE : 0, PAWN);
+                }
+            }
+        }
+
+        if (king == 64) {
+            return count;
+        }
+        if (legal) {
+            count = addKingMoves(moves, count, king, capturesOnly ? enemy : ~own, them);
+        }
+        else {
+            long targets = Attacks.king(king) & (capturesOnly ? enemy : ~own);
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                moves[count++] = Move.of(king, to, ((enemy & (1L << to)) != 0) ? Move.CAPTURE : 0, PAWN);
+            }
+        }
+
+        //special move castling, never out of or through check, and in legal mode not into it either
+        int rights = castlingRights >>> (2 * us);
+        if ((rights & 3) != 0 && !capturesOnly) {
+            if (!isSquareAttacked(king, them)) {
+                if ((rights & 1) != 0 && (occupied & (3L << (king + 1))) == 0 && !isSquareAttacked(king + 1, them)
+                        && (!legal || !isSquareAttacked(king + 2, them))) {
+                    moves[count++] = Move.of(king, king + 2, Move.CASTLING, PAWN);
+                }
+                if ((rights & 2) != 0 && (occupied & (7L << (king - 3))) == 0 && !isSquareAttacked(king - 1, them)
+                        && (!legal || !isSquareAttacked(king - 2, them))) {
+                    moves[count++] = Move.of(king, king - 2, Move.CASTLING, PAWN);
+                }
+            }
+        }
+        return count;
+    }
+
+    // king steps to squares no enemy piece sees once the king has left its square, so sliders see through it
+    private int addKingMoves(int[] moves, int count, int king, long targetMask, int them) {
+        long occupiedWithoutKing = occupied & ~(1L << king);
+        long targets = Attacks.king(king) & targetMask;
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (attackers(to, them, occupiedWithoutKing) == 0) {
+                moves[count++] = Move.of(king, to, ((colors[them] & (1L << to)) != 0) ? Move.CAPTURE : 0, PAWN);
+            }
+        }
+        return count;
+    }
+
+    // pieces of this color attacking the square, with sliders blocked by the given occupancy
+    private long attackers(int square, int byColor, long occupied) {
+        long[] p = pieces;
+        int base = code(byColor, PAWN);
+        long queens = p[base + QUEEN];
+        return (Attacks.pawn(1 - byColor, square) & p[base + PAWN])
+                | (Attacks.knight(square) & p[base + KNIGHT])
+                | (Attacks.king(square) & p[base + KING])
+                | (Attacks.bishop(square, occupied) & (p[base + BISHOP] | queens))
+                | (Attacks.rook(square, occupied) & (p[base + ROOK] | queens));
+    }
+
+    // own pieces standing alone between their king and an enemy slider on the same line
+    private long pinned(int color) {
+        int king = kingSquare[color];
+        int base = code(1 - color, PAWN);
+        long queens = pieces[base + QUEEN];
+        long snipers = (Attacks.rook(king, 0L) & (pieces[base + ROOK] | queens))
+                | (Attacks.bishop(king, 0L) & (pieces[base + BISHOP] | queens));
+        long pinned = 0L;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = Attacks.between(king, sniper) & occupied;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) {
+                pinned |= blockers & colors[color];
+            }
+        }
+        return pinned;
+    }
+
+    // en passant takes two pawns off one rank at once, so pins and checks are tested on the board as it would be
+    private boolean isLegalEnPassant(int from, int us) {
+        int captured = enPassantSquare + ((us == WHITE) ? -8 : 8);
+        long after = (occupied ^ (1L << from) ^ (1L << captured)) | (1L << enPassantSquare);
+        return (attackers(kingSquare[us], 1 - us, after) & ~(1L << captured)) == 0;
+    }
+
+    private static int addPawnMoves(int[] moves, int count, int from, int to, int flags) {
+        if (to >= 56 || to < 8) {
+            moves[count++] = Move.of(from, to, flags, QUEEN);
+            moves[count++] = Move.of(from, to, flags, ROOK);
+            moves[count++] = Move.of(from, to, flags, BISHOP);
+            moves[count++] = Move.of(from, to, flags, KNIGHT);
+        }
+        else {
+            moves[count++] = Move.of(from, to, flags, PAWN);
+        }
+        return count;
+    }
+
+    // attack set of a non-pawn piece of this type standing on the square
+    public static long attacks(int type, int square, long occupied) {
+        switch (type) {
+        case KNIGHT:
+            return Attacks.knight(square);
+        case BISHOP:
+            return Attacks.bishop(square, occupied);
+        case ROOK:
+            return Attacks.rook(square, occupied);
+        case QUEEN:
+            return Attacks.queen(square, occupied);
+        case KING:
+            return Attacks.king(square);
+        default:
+            throw new IllegalArgumentException("Tipo sem ataque fixo: " + type);
+        }
+    }
+}
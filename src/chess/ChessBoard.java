@@ -0,0 +1,21 @@
+package chess;
+
+import boardgame.Board;
+
+public class ChessBoard extends Board {
+
+    private BitBoard bitBoard;
+
+    public ChessBoard() {
+        this(new BitBoard());
+    }
+
+    public ChessBoard(BitBoard bitBoard) {
+        super(8, 8);
+        this.bitBoard = bitBoard;
+    }
+
+    public BitBoard getBitBoard() {
+        return bitBoard;
+    }
+}
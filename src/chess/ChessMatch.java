@@ -1,13 +1,15 @@
 package chess;
 
+import java.io.IOException;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
-import boardgame.Board;
 import boardgame.Piece;
 import boardgame.Position;
+import chess.book.BookMove;
+import chess.book.PolyglotBook;
+import chess.tablebase.Tablebase;
 import chess.pieces.Bispo;
 import chess.pieces.Cavalo;
 import chess.pieces.Peao;
@@ -16,22 +18,50 @@ import chess.pieces.Rei;
 import chess.pieces.Torre;
 
 public class ChessMatch {
-    private Board board;
+    private ChessBoard board;
     private int turn;
     private Color currentPlayer;
     private boolean check;
     private boolean checkMate;
+    private boolean stalemate;
+    private boolean draw;
     private ChessPiece enPassantVulnerable;
     private ChessPiece promoted;
 
-    private List<Piece> piecesOnBoard = new ArrayList<>();
     private List<Piece> capturedPieces = new ArrayList<>();
 
+    // scratch buffer for move generation, reused so validating a move allocates nothing
+    private int[] moves = new int[Move.MAX_MOVES];
+
+    // replaced, never changed, after every move; readers on other threads take it without locking the match
+    private volatile PositionSnapshot snapshot;
+
     public ChessMatch() {
-        board = new Board(8, 8);
+        board = new ChessBoard();
         turn = 1;
         currentPlayer = Color.BRANCO;
         initialSetup();
+        publish();
+    }
+
+    // the piece objects are built from the BitBoard
+    private ChessMatch(BitBoard bitBoard) {
+        board = new ChessBoard(bitBoard);
+        setupFromBitBoard();
+        publish();
+    }
+
+    // match starting from any position, all six FEN fields included; the move counters may be left out
+    public static ChessMatch fromFen(CharSequence fen) {
+        return new ChessMatch(BitBoard.fromFen(fen));
+    }
+
+    public void toFen(Appendable out) throws IOException {
+        board.getBitBoard().toFen(out);
+    }
+
+    public String toFen() {
+        return board.getBitBoard().toFen();
     }
 
     public int getTurn() {
@@ -50,6 +80,28 @@ public class ChessMatch {
         return checkMate;
     }
 
+    public boolean getStalemate() {
+        return stalemate;
+    }
+
+    // stalemate, fifty moves without a capture or pawn move, threefold repetition or a dead position;
+    // moves are still accepted afterwards, ending the game is up to the caller
+    public boolean getDraw() {
+        return draw;
+    }
+
+    public boolean getFiftyMoveRule() {
+        return board.getBitBoard().isFiftyMoveRule();
+    }
+
+    public boolean getThreefoldRepetition() {
+        return board.getBitBoard().isThreefoldRepetition();
+    }
+
+    public boolean getInsufficientMaterial() {
+        return board.getBitBoard().isInsufficientMaterial();
+    }
+
     public ChessPiece getPromoted() {
         return promoted;
     }
@@ -58,6 +110,26 @@ public class ChessMatch {
         return enPassantVulnerable;
     }
 
+    // Zobrist key of the current position, including castling rights, en passant and side to move
+    public long getKey() {
+        return board.getBitBoard().getKey();
+    }
+
+    // independent copy of the position, history included, for a search to make and unmake moves on
+    public BitBoard copyBitBoard() {
+        return new BitBoard(board.getBitBoard());
+    }
+
+    // static evaluation in centipawns from the current player's point of view, without any search
+    public int evaluate() {
+        return board.getBitBoard().evaluate();
+    }
+
+    // the position after the last move, safe to read from any thread
+    public PositionSnapshot getSnapshot() {
+        return snapshot;
+    }
+
     public ChessPiece[][] getPieces() {
         ChessPiece[][] mat = new ChessPiece[board.getRows()][board.getColumns()];
         for (int i = 0; i < board.getRows(); i++) {
@@ -74,49 +146,85 @@ public class ChessMatch {
         return board.piece(position).possibleMoves();
     }
 
+    public long possibleMovesMask(ChessPosition sourcePosition) {
+        Position position = sourcePosition.toPosition();
+        validateSourcePosition(position);
+        return ((ChessPiece) board.piece(position)).possibleMovesMask();
+    }
+
+    // writes the current player's moves, as possibleMoves sees them, into the buffer and returns how many there are
+    public int generateMoves(int[] moves) {
+        return board.getBitBoard().generateMoves(moves);
+    }
+
+    // the current player's legal moves only
+    public int generateLegalMoves(int[] moves) {
+        return board.getBitBoard().generateLegalMoves(moves);
+    }
+
+    // a pawn reaching the last rank becomes a queen; replacePromotedPiece can still change it
     public ChessPiece performChessMove(ChessPosition sourcePosition, ChessPosition targetPosition) {
+        return performChessMove(sourcePosition, targetPosition, BitBoard.QUEEN);
+    }
+
+    // promotion is the BitBoard type a pawn reaching the last rank becomes, ignored for any other move
+    public ChessPiece performChessMove(ChessPosition sourcePosition, ChessPosition targetPosition, int promotion) {
+        if (promotion < BitBoard.KNIGHT || promotion > BitBoard.QUEEN) {
+            throw new InvalidParameterException("Tipo invalido para promocao");
+        }
         Position source = sourcePosition.toPosition();
         Position target = targetPosition.toPosition();
         validateSourcePosition(source);
         validadeTargetPosition(source, target);
-        Piece capturedPiece = makeMove(source, target);
 
-        if (testCheck(currentPlayer)) {
-            undoMove(source, target, capturedPiece);
-            throw new ChessException("Voce nao pode se colocar em cheque!");
-        }
+        int move = findMove(BitBoard.square(source.getRow(), source.getColumn()), BitBoard.square(target.getRow(), target.getColumn()), promotion);
+        board.getBitBoard().makeMove(move);
 
+        Piece capturedPiece = makeMove(move);
         ChessPiece movedPiece = (ChessPiece)board.piece(target);
 
-        // #specialmove promotion
+        // #specialmove promotion, the BitBoard already holds the new piece
         promoted = null;
-        if (movedPiece instanceof Peao) {
-            if ((movedPiece.getColor() == Color.BRANCO && target.getRow() == 0) || (movedPiece.getColor() == Color.PRETO && target.getRow() == 7)) {
-                promoted = (ChessPiece)board.piece(target);
-                promoted = replacePromotedPiece("Q");
-            }
+        if (Move.isPromotion(move)) {
+            board.removePiece(target);
+            promoted = newPiece(promotion, movedPiece.getColor());
+            board.placePiece(promoted, target);
         }
 
-        check = (testCheck(opponent(currentPlayer))) ? true : false;
-
-		if (testCheckMate(opponent(currentPlayer))) {
-			checkMate = true;
-		}
-		else {
-			nextTurn();
-		}
+        endTurn();
 
 		// #specialmove en passant
-		if (movedPiece instanceof Peao && (target.getRow() == source.getRow() - 1 || target.getRow() == source.getRow() + 1)) {
+		if ((Move.flags(move) & Move.DOUBLE_PUSH) != 0) {
 			enPassantVulnerable = movedPiece;
 		}
 		else {
 			enPassantVulnerable = null;
 		}
+		publish();
 
 		return (ChessPiece)capturedPiece;
 	}
 
+    // the opening book's moves for the current position, best first; empty when the position is not in the book
+    public List<BookMove> probeBook(PolyglotBook book) {
+        return book.probe(board.getBitBoard());
+    }
+
+    // Tablebase.UNKNOWN, Tablebase.DRAW or the distance to mate of the current position, from the current player's view
+    public int probeTablebase(Tablebase tablebase) {
+        return tablebase.probe(board.getBitBoard());
+    }
+
+    // the tables' best move for the current player, or Move.NONE when the position is not in them
+    public int tablebaseMove(Tablebase tablebase) {
+        return tablebase.bestMove(copyBitBoard());
+    }
+
+    // plays a move from generateMoves or a search, promotion piece included
+    public ChessPiece performMove(int move) {
+        return performChessMove(ChessPosition.fromSquare(Move.from(move)), ChessPosition.fromSquare(Move.to(move)),
+                Move.isPromotion(move) ? Move.promotion(move) : BitBoard.QUEEN);
+    }
 
     public ChessPiece replacePromotedPiece(String type) {
         if (promoted == null) {
@@ -127,16 +235,36 @@ public class ChessMatch {
         }
 
         Position pos = promoted.getChessPosition().toPosition();
-        Piece p = board.removePiece(pos);
-        piecesOnBoard.remove(p);
+        board.removePiece(pos);
 
         ChessPiece newPiece = newPiece(type, promoted.getColor());
         board.placePiece(newPiece, pos);
-        piecesOnBoard.add(newPiece);
+        board.getBitBoard().changePromotion(newPiece.getType());
+        promoted = newPiece;
+
+        // the turn ended with the old piece; a different one can give or miss check, mate or stalemate
+        if (!checkMate) {
+            turn--;
+            currentPlayer = opponent(currentPlayer);
+        }
+        checkMate = false;
+        endTurn();
+        publish();
 
         return newPiece;
     }
 
+    private ChessPiece newPiece(int type, Color color) {
+        switch (type) {
+        case BitBoard.PAWN: return new Peao(board, color);
+        case BitBoard.KNIGHT: return new Cavalo(board, color);
+        case BitBoard.BISHOP: return new Bispo(board, color);
+        case BitBoard.ROOK: return new Torre(board, color);
+        case BitBoard.QUEEN: return new Rainha(board, color);
+        default: return new Rei(board, color);
+        }
+    }
+
     private ChessPiece newPiece(String type, Color color) {
         if (type.equals("B")) return new Bispo(board, color);
         if (type.equals("C")) return new Cavalo(board, color);
@@ -144,96 +272,57 @@ public class ChessMatch {
         return new Torre(board, color);
     }
 
-    private Piece makeMove(Position source, Position target) {
+    // the legal move between the squares; a pseudo-legal one that is missing from the legal list would leave the king in check
+    private int findMove(int from, int to, int promotion) {
+        int move = findMove(from, to, promotion, board.getBitBoard().generateLegalMoves(moves));
+        if (move != Move.NONE) {
+            return move;
+        }
+        if (findMove(from, to, promotion, board.getBitBoard().generateMoves(moves)) != Move.NONE) {
+            throw new ChessException("Voce nao pode se colocar em cheque!");
+        }
+        throw new ChessException("A peca escolhida nao pode se mover para a posicao de destino!");
+    }
+
+    private int findMove(int from, int to, int promotion, int count) {
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (Move.from(move) == from && Move.to(move) == to && (Move.promotion(move) == BitBoard.PAWN || Move.promotion(move) == promotion)) {
+                return move;
+            }
+        }
+        return Move.NONE;
+    }
+
+    // mirrors a move already made on the BitBoard onto the piece objects
+    private Piece makeMove(int move) {
+        Position source = new Position(BitBoard.row(Move.from(move)), BitBoard.column(Move.from(move)));
+        Position target = new Position(BitBoard.row(Move.to(move)), BitBoard.column(Move.to(move)));
 
         ChessPiece p = (ChessPiece) board.removePiece(source);
         p.increaseMoveCount();
         Piece capturedPiece = board.removePiece(target);
         board.placePiece(p, target);
 
-        if (capturedPiece != null) {
-            piecesOnBoard.remove(capturedPiece);
-            capturedPieces.add(capturedPiece);
-        }
-
-        //special move caslting kingside
-        if (p instanceof Rei && target.getColumn() == source.getColumn() + 2) {
-            Position sourceT = new Position(source.getRow(), source.getColumn() + 3);
-            Position targetT = new Position(source.getRow(), source.getColumn() + 1);
+        //special move caslting, the rook jumps to the square the king crossed
+        if ((Move.flags(move) & Move.CASTLING) != 0) {
+            int rookColumn = (target.getColumn() > source.getColumn()) ? source.getColumn() + 3 : source.getColumn() - 4;
+            Position sourceT = new Position(source.getRow(), rookColumn);
+            Position targetT = new Position(source.getRow(), (source.getColumn() + target.getColumn()) / 2);
             ChessPiece rook = (ChessPiece)board.removePiece(sourceT);
             board.placePiece(rook, targetT);
             rook.increaseMoveCount();
         }
-        //special move caslting queenside
-        if (p instanceof Rei && target.getColumn() == source.getColumn() - 2) {
-            Position sourceT = new Position(source.getRow(), source.getColumn() - 4);
-            Position targetT = new Position(source.getRow(), source.getColumn() - 1);
-            ChessPiece rook = (ChessPiece) board.removePiece(sourceT);
-            board.placePiece(rook, targetT);
-            rook.increaseMoveCount();
-        }
 
-        //special moveEnpassant
-        if (p instanceof Peao) {
-            if (source.getColumn() != target.getColumn() && capturedPiece == null) {
-                Position pawnPosition;
-                if (p.getColor() == Color.BRANCO) {
-                    pawnPosition = new Position(target.getRow() + 1, target.getColumn());
-                } else {
-                    pawnPosition = new Position(target.getRow() - 1, target.getColumn());
-                }
-                capturedPiece = board.removePiece(pawnPosition);
-                capturedPieces.add(capturedPiece);
-                piecesOnBoard.remove(capturedPiece);
-            }
+        //special moveEnpassant, the captured pawn stands beside the source square
+        if ((Move.flags(move) & Move.EN_PASSANT) != 0) {
+            capturedPiece = board.removePiece(new Position(source.getRow(), target.getColumn()));
         }
-        return capturedPiece;
-    }
-
-    private void undoMove(Position source, Position target, Piece capturedPiece) {
-        ChessPiece p = (ChessPiece)board.removePiece(target);
-        p.decreaseMoveCount();
-        board.placePiece(p, source);
 
         if (capturedPiece != null) {
-            board.placePiece(capturedPiece, target);
-            capturedPieces.remove(capturedPiece);
-            piecesOnBoard.add(capturedPiece);
-        }
-
-        //special move caslting kingside
-        if (p instanceof Rei && target.getColumn() == source.getColumn() + 2) {
-            Position sourceT = new Position(source.getRow(), source.getColumn() + 3);
-            Position targetT = new Position(source.getRow(), source.getColumn() + 1);
-            ChessPiece rook = (ChessPiece)board.removePiece(targetT);
-            board.placePiece(rook, sourceT);
-            rook.decreaseMoveCount();
-        }
-        //special move caslting queenside
-        if (p instanceof Rei && target.getColumn() == source.getColumn() - 2) {
-            Position sourceT = new Position(source.getRow(), source.getColumn() - 4);
-            Position targetT = new Position(source.getRow(), source.getColumn() - 1);
-            ChessPiece rook = (ChessPiece)board.removePiece(targetT);
-            board.placePiece(rook, sourceT);
-            rook.decreaseMoveCount();
-        }
-        //special moveEnpassant
-        if (p instanceof Peao) {
-
-            if (source.getColumn() != target.getColumn() && capturedPiece == enPassantVulnerable) {
-                ChessPiece pawn = (ChessPiece)board.removePiece(target);
-                Position pawnPosition;
-
-                if (p.getColor() == Color.BRANCO) {
-                    pawnPosition = new Position(3, target.getColumn());
-                } else {
-                    pawnPosition = new Position(4, target.getColumn());
-                }
-                board.placePiece(pawn, pawnPosition);
-            }
+            capturedPieces.add(capturedPiece);
         }
-
-
+        return capturedPiece;
     }
 
     private void validateSourcePosition(Position position) {
@@ -255,6 +344,18 @@ public class ChessMatch {
         }
     }
 
+    // the current player just moved: check, mate and draws are tested on the opponent, who moves next unless mated
+    private void endTurn() {
+        check = testCheck(opponent(currentPlayer));
+        if (testCheckMate(opponent(currentPlayer))) {
+            checkMate = true;
+        }
+        else {
+            nextTurn();
+        }
+        updateDraw();
+    }
+
     private void nextTurn() {
         turn++;
         currentPlayer = (currentPlayer == Color.BRANCO) ? Color.PRETO : Color.BRANCO;
@@ -264,61 +365,61 @@ public class ChessMatch {
         return (color == color.BRANCO) ? Color.PRETO : Color.BRANCO;
     }
 
-    private ChessPiece king(Color color) {
-        List<Piece> list = piecesOnBoard.stream().filter(x -> ((ChessPiece) x).getColor() == color)
-                .collect(Collectors.toList());
-        for (Piece piece : list) {
-            if (piece instanceof Rei) {
-                return (ChessPiece) piece;
-            }
+    boolean testCheck(Color color) {
+        BitBoard bitBoard = board.getBitBoard();
+        int kingSquare = bitBoard.kingSquare(BitBoard.colorIndex(color));
+        if (kingSquare == 64) {
+            throw new IllegalStateException("Nao ha rei " + color + " no tabuleiro!");
         }
-        throw new IllegalStateException("Nao ha rei " + color + " no tabuleiro!");
+        return bitBoard.isSquareAttacked(kingSquare, BitBoard.colorIndex(opponent(color)));
     }
 
-    private boolean testCheck(Color color) {
-        Position kingPosition = king(color).getChessPosition().toPosition();
-        List<Piece> opponentPieces = piecesOnBoard.stream().filter(x -> ((ChessPiece) x).getColor() == opponent(color))
-                .collect(Collectors.toList());
-        for (Piece p : opponentPieces) {
-            boolean[][] mat = p.possibleMoves();
-            if (mat[kingPosition.getRow()][kingPosition.getColumn()]) {
-                return true;
-            }
-        }
-        return false;
+    // color must be the side to move on the BitBoard
+    boolean testCheckMate(Color color) {
+        return testCheck(color) && board.getBitBoard().generateLegalMoves(moves) == 0;
     }
 
-    private boolean testCheckMate(Color color) {
-        if (!testCheck(color)) {
-            return false;
-        }
-        List<Piece> list = piecesOnBoard.stream().filter(x -> ((ChessPiece) x).getColor() == color)
-                .collect(Collectors.toList());
-        for (Piece p : list) {
-            boolean mat[][] = p.possibleMoves();
-            for (int i = 0; i < board.getRows(); i++) {
-                for (int j = 0; j < board.getColumns(); j++) {
-                    if (mat[i][j]) {
-                        Position source = ((ChessPiece) p).getChessPosition().toPosition();
-                        Position target = new Position(i, j);
-                        Piece capturedPiece = makeMove(source, target);
-                        boolean testCheck = testCheck(color);
-                        undoMove(source, target, capturedPiece);
-                        if (!testCheck) {
-                            return false;
-                        }
-                    }
-                }
+    boolean testStalemate(Color color) {
+        return !testCheck(color) && board.getBitBoard().generateLegalMoves(moves) == 0;
+    }
 
-            }
-        }
+    // every rule is a counter or a table lookup on the BitBoard, nothing is rescanned
+    private void updateDraw() {
+        BitBoard bitBoard = board.getBitBoard();
+        stalemate = !checkMate && testStalemate(currentPlayer);
+        draw = stalemate || bitBoard.isFiftyMoveRule() || bitBoard.isThreefoldRepetition() || bitBoard.isInsufficientMaterial();
+    }
 
-        return true;
+    private void publish() {
+        snapshot = new PositionSnapshot(board.getBitBoard(), turn, currentPlayer, check, checkMate, stalemate, draw);
     }
 
     private void placeNewPiece(char column, int row, ChessPiece piece) {
-        board.placePiece(piece, new ChessPosition(column, row).toPosition());
-        piecesOnBoard.add(piece);
+        Position position = new ChessPosition(column, row).toPosition();
+        board.placePiece(piece, position);
+        board.getBitBoard().put(BitBoard.square(position.getRow(), position.getColumn()), BitBoard.code(piece.getColorIndex(), piece.getType()));
+    }
+
+    private void setupFromBitBoard() {
+        BitBoard bitBoard = board.getBitBoard();
+        for (int square = 0; square < 64; square++) {
+            int code = bitBoard.pieceAt(square);
+            if (code != BitBoard.NONE) {
+                Color color = (BitBoard.colorOf(code) == BitBoard.WHITE) ? Color.BRANCO : Color.PRETO;
+                board.placePiece(newPiece(BitBoard.typeOf(code), color), new Position(BitBoard.row(square), BitBoard.column(square)));
+            }
+        }
+        currentPlayer = (bitBoard.getSideToMove() == BitBoard.WHITE) ? Color.BRANCO : Color.PRETO;
+        turn = 2 * (bitBoard.getFullmoveNumber() - 1) + ((currentPlayer == Color.BRANCO) ? 1 : 2);
+
+        int enPassantSquare = bitBoard.getEnPassantSquare();
+        if (enPassantSquare != BitBoard.NONE) {
+            int pawnSquare = enPassantSquare + ((currentPlayer == Color.BRANCO) ? -8 : 8);
+            enPassantVulnerable = (ChessPiece) board.piece(BitBoard.row(pawnSquare), BitBoard.column(pawnSquare));
+        }
+        check = testCheck(currentPlayer);
+        checkMate = testCheckMate(currentPlayer);
+        updateDraw();
     }
 
     public void initialSetup() {
@@ -326,38 +427,40 @@ public class ChessMatch {
         placeNewPiece('b', 1, new Cavalo(board, Color.BRANCO));
         placeNewPiece('c', 1, new Bispo(board, Color.BRANCO));
         placeNewPiece('d', 1, new Rainha(board, Color.BRANCO));
-        placeNewPiece('e', 1, new Rei(board, Color.BRANCO, this));
+        placeNewPiece('e', 1, new Rei(board, Color.BRANCO));
         placeNewPiece('f', 1, new Bispo(board, Color.BRANCO));
         placeNewPiece('g', 1, new Cavalo(board, Color.BRANCO));
         placeNewPiece('h', 1, new Torre(board, Color.BRANCO));
 
-        placeNewPiece('a', 2, new Peao(board, Color.BRANCO, this));
-        placeNewPiece('b', 2, new Peao(board, Color.BRANCO, this));
-        placeNewPiece('c', 2, new Peao(board, Color.BRANCO, this));
-        placeNewPiece('d', 2, new Peao(board, Color.BRANCO, this));
-        placeNewPiece('e', 2, new Peao(board, Color.BRANCO, this));
-        placeNewPiece('f', 2, new Peao(board, Color.BRANCO, this));
-        placeNewPiece('g', 2, new Peao(board, Color.BRANCO, this));
-        placeNewPiece('h', 2, new Peao(board, Color.BRANCO, this));
+        placeNewPiece('a', 2, new Peao(board, Color.BRANCO));
+        placeNewPiece('b', 2, new Peao(board, Color.BRANCO));
+        placeNewPiece('c', 2, new Peao(board, Color.BRANCO));
+        placeNewPiece('d', 2, new Peao(board, Color.BRANCO));
+        placeNewPiece('e', 2, new Peao(board, Color.BRANCO));
+        placeNewPiece('f', 2, new Peao(board, Color.BRANCO));
+        placeNewPiece('g', 2, new Peao(board, Color.BRANCO));
+        placeNewPiece('h', 2, new Peao(board, Color.BRANCO));
 
 
         placeNewPiece('a', 8, new Torre(board, Color.PRETO));
         placeNewPiece('b', 8, new Cavalo(board, Color.PRETO));
         placeNewPiece('c', 8, new Bispo(board, Color.PRETO));
         placeNewPiece('d', 8, new Rainha(board, Color.PRETO));
-        placeNewPiece('e', 8, new Rei(board, Color.PRETO, this));
+        placeNewPiece('e', 8, new Rei(board, Color.PRETO));
         placeNewPiece('f', 8, new Bispo(board, Color.PRETO));
         placeNewPiece('g', 8, new Cavalo(board, Color.PRETO));
         placeNewPiece('h', 8, new Torre(board, Color.PRETO));
 
-        placeNewPiece('a', 7, new Peao(board, Color.PRETO, this));
-        placeNewPiece('b', 7, new Peao(board, Color.PRETO, this));
-        placeNewPiece('c', 7, new Peao(board, Color.PRETO, this));
-        placeNewPiece('d', 7, new Peao(board, Color.PRETO, this));
-        placeNewPiece('e', 7, new Peao(board, Color.PRETO, this));
-        placeNewPiece('f', 7, new Peao(board, Color.PRETO, this));
-        placeNewPiece('g', 7, new Peao(board, Color.PRETO, this));
-        placeNewPiece('h', 7, new Peao(board, Color.PRETO, this));
+        placeNewPiece('a', 7, new Peao(board, Color.PRETO));
+        placeNewPiece('b', 7, new Peao(board, Color.PRETO));
+        placeNewPiece('c', 7, new Peao(board, Color.PRETO));
+        placeNewPiece('d', 7, new Peao(board, Color.PRETO));
+        placeNewPiece('e', 7, new Peao(board, Color.PRETO));
+        placeNewPiece('f', 7, new Peao(board, Color.PRETO));
+        placeNewPiece('g', 7, new Peao(board, Color.PRETO));
+        placeNewPiece('h', 7, new Peao(board, Color.PRETO));
+
+        board.getBitBoard().setCastlingRights(BitBoard.ALL_CASTLING);
 
     }
 }
@@ -16,6 +16,12 @@ public abstract class ChessPiece extends Piece {
     public Color getColor() {
         return color;
     }
+
+    protected int getColorIndex() {
+        return BitBoard.colorIndex(color);
+    }
+
+    protected abstract int getType();
     
     public int getMoveCount() {
     	return moveCount;
@@ -28,6 +34,42 @@ public abstract class ChessPiece extends Piece {
 		moveCount--;
 	}
     
+    protected BitBoard getBitBoard() {
+        return ((ChessBoard) getBoard()).getBitBoard();
+    }
+
+    protected int getSquare() {
+        return BitBoard.square(position.getRow(), position.getColumn());
+    }
+
+    // squares this piece can move to, one bit per square as in BitBoard
+    public abstract long possibleMovesMask();
+
+    @Override
+    public boolean[][] possibleMoves() {
+        return toMatrix(possibleMovesMask());
+    }
+
+    @Override
+    public boolean possibleMove(Position position) {
+        return (possibleMovesMask() & (1L << BitBoard.square(position.getRow(), position.getColumn()))) != 0;
+    }
+
+    @Override
+    public boolean isThereAnyPossibleMove() {
+        return possibleMovesMask() != 0;
+    }
+
+    protected boolean[][] toMatrix(long squares) {
+        boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
+        while (squares != 0) {
+            int square = Long.numberOfTrailingZeros(squares);
+            squares &= squares - 1;
+            mat[BitBoard.row(square)][BitBoard.column(square)] = true;
+        }
+        return mat;
+    }
+
     protected boolean isThereOpponentPiece(Position position) {
 		ChessPiece p = (ChessPiece)getBoard().piece(position);
     	return p!= null && p.getColor() != color; 
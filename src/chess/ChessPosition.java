@@ -30,6 +30,11 @@ public class ChessPosition {
         return new ChessPosition((char) ('a' + position.getColumn()), 8 - position.getRow());
     }
 
+    // square index of the BitBoard, a1 = 0 and h8 = 63
+    public static ChessPosition fromSquare(int square){
+        return new ChessPosition((char) ('a' + (square & 7)), (square >>> 3) + 1);
+    }
+
     @Override
     public String toString() {
         return "" + column + row;
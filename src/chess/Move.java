@@ -0,0 +1,57 @@
+package chess;
+
+// a move packed in an int: from (bits 0-5), to (6-11), flags (12-15) and promotion type (16-18)
+public final class Move {
+
+    public static final int NONE = 0;
+
+    // enough for any legal chess position
+    public static final int MAX_MOVES = 256;
+
+    public static final int CAPTURE = 1;
+    public static final int DOUBLE_PUSH = 2;
+    public static final int EN_PASSANT = 4;
+    public static final int CASTLING = 8;
+
+    private Move() {
+    }
+
+    public static int of(int from, int to, int flags, int promotion) {
+        return from | (to << 6) | (flags << 12) | (promotion << 16);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    public static int flags(int move) {
+        return (move >>> 12) & 15;
+    }
+
+    // piece type the pawn becomes, or BitBoard.PAWN when the move is not a promotion
+    public static int promotion(int move) {
+        return (move >>> 16) & 7;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & (CAPTURE << 12)) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return promotion(move) != BitBoard.PAWN;
+    }
+
+    public static String toString(int move) {
+        StringBuilder sb = new StringBuilder(5);
+        sb.append((char) ('a' + (from(move) & 7))).append((char) ('1' + (from(move) >>> 3)));
+        sb.append((char) ('a' + (to(move) & 7))).append((char) ('1' + (to(move) >>> 3)));
+        if (isPromotion(move)) {
+            sb.append("pnbrqk".charAt(promotion(move)));
+        }
+        return sb.toString();
+    }
+}
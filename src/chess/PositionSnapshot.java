@@ -0,0 +1,130 @@
+package chess;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// The state of a match after one move, frozen: a byte per square plus the fields the rules and the display need.
+// ChessMatch publishes a new one after every move, so any number of threads can read it without the match's lock
+// and without copying the board, while the match itself goes on changing.
+public final class PositionSnapshot {
+
+    private final byte[] squares;
+    private final int sideToMove;
+    private final int castlingRights;
+    private final int enPassantSquare;
+    private final int halfmoveClock;
+    private final int fullmoveNumber;
+    private final long key;
+    private final int lastMove;
+    private final int turn;
+    private final Color currentPlayer;
+    private final boolean check;
+    private final boolean checkMate;
+    private final boolean stalemate;
+    private final boolean draw;
+
+    // built on first use; racing threads build equal strings, so the unsynchronized cache is harmless
+    private String fen;
+
+    PositionSnapshot(BitBoard bitBoard, int turn, Color currentPlayer, boolean check, boolean checkMate,
+            boolean stalemate, boolean draw) {
+        squares = bitBoard.copyMailbox();
+        sideToMove = bitBoard.getSideToMove();
+        castlingRights = bitBoard.getCastlingRights();
+        enPassantSquare = bitBoard.getEnPassantSquare();
+        halfmoveClock = bitBoard.getHalfmoveClock();
+        fullmoveNumber = bitBoard.getFullmoveNumber();
+        key = bitBoard.getKey();
+        lastMove = bitBoard.lastMove();
+        this.turn = turn;
+        this.currentPlayer = currentPlayer;
+        this.check = check;
+        this.checkMate = checkMate;
+        this.stalemate = stalemate;
+        this.draw = draw;
+    }
+
+    // BitBoard.code of the piece on the square (a1 = 0), or BitBoard.NONE
+    public int pieceAt(int square) {
+        return squares[square];
+    }
+
+    // same rows and columns as ChessMatch.getPieces: row 0 is rank 8
+    public int pieceAt(int row, int column) {
+        return squares[BitBoard.square(row, column)];
+    }
+
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    // as in ChessMatch: after a mate it stays the winner, while the side to move is the mated one
+    public Color getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    public long getKey() {
+        return key;
+    }
+
+    // the move that led here, Move.NONE at the start of the match
+    public int getLastMove() {
+        return lastMove;
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    public boolean getCheck() {
+        return check;
+    }
+
+    public boolean getCheckMate() {
+        return checkMate;
+    }
+
+    public boolean getStalemate() {
+        return stalemate;
+    }
+
+    public boolean getDraw() {
+        return draw;
+    }
+
+    public void toFen(Appendable out) throws IOException {
+        BitBoard.appendFen(out, squares, sideToMove, castlingRights, enPassantSquare, halfmoveClock, fullmoveNumber);
+    }
+
+    public String toFen() {
+        String result = fen;
+        if (result == null) {
+            StringBuilder sb = new StringBuilder(90);
+            try {
+                toFen(sb);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            result = sb.toString();
+            fen = result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,132 @@
+package chess;
+
+import java.util.Arrays;
+
+// Fixed-size table of search results keyed by the Zobrist key, shared by any number of threads without locks.
+// Each entry is two longs, key ^ data and data: a torn or racing write no longer xors back to the key, so
+// readers see it as a miss instead of a wrong result.
+public class TranspositionTable {
+
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    // data layout: move (bits 0-19), score (20-35, signed), depth (36-43), bound (44-45), age (46-51)
+    private static final int SCORE_SHIFT = 20;
+    private static final int DEPTH_SHIFT = 36;
+    private static final int BOUND_SHIFT = 44;
+    private static final int AGE_SHIFT = 46;
+
+    private static final int ENTRY_LONGS = 2;
+    private static final int BUCKET_ENTRIES = 2;
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int age;
+
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Tamanho minimo da tabela e 1 MB");
+        }
+        long bytes = (long) megabytes << 20;
+        long buckets = Long.highestOneBit(bytes / (8 * ENTRY_LONGS * BUCKET_ENTRIES));
+        // keeps the array index within an int (8 GB of table)
+        buckets = Math.min(buckets, 1L << 28);
+        table = new long[(int) buckets * ENTRY_LONGS * BUCKET_ENTRIES];
+        bucketMask = (int) buckets - 1;
+    }
+
+    public int sizeInEntries() {
+        return table.length / ENTRY_LONGS;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+        age = 0;
+    }
+
+    // entries from older searches are the first to be replaced
+    public void newSearch() {
+        age = (age + 1) & 63;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound) {
+        int base = index(key);
+        int currentAge = age;
+        int replace = base;
+        int worst = Integer.MAX_VALUE;
+        for (int i = base; i < base + BUCKET_ENTRIES * ENTRY_LONGS; i += ENTRY_LONGS) {
+            long data = table[i + 1];
+            if (data != 0L && (table[i] ^ data) == key) {
+                // keep the old best move when the new result did not find one
+                if (move == Move.NONE) {
+                    move = move(data);
+                }
+                replace = i;
+                break;
+            }
+            // empty slots first, then the shallowest entry, counting each search of age as 8 plies of depth
+            int value = (data == 0L) ? Integer.MIN_VALUE : depth(data) - 8 * ((currentAge - age(data)) & 63);
+            if (value < worst) {
+                worst = value;
+                replace = i;
+            }
+        }
+        long data = (move & 0xFFFFFL)
+                | ((score & 0xFFFFL) << SCORE_SHIFT)
+                | ((long) Math.max(0, Math.min(depth, 255)) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) currentAge << AGE_SHIFT);
+        table[replace] = key ^ data;
+        table[replace + 1] = data;
+    }
+
+    // the packed data stored for this key, or 0 when there is none
+    public long probe(long key) {
+        int base = index(key);
+        for (int i = base; i < base + BUCKET_ENTRIES * ENTRY_LONGS; i += ENTRY_LONGS) {
+            long data = table[i + 1];
+            if ((table[i] ^ data) == key && data != 0L) {
+                return data;
+            }
+        }
+        return 0L;
+    }
+
+    // permille of sampled entries written by the current search
+    public int hashfull() {
+        int sample = Math.min(1000, sizeInEntries());
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            long data = table[i * ENTRY_LONGS + 1];
+            if (data != 0L && age(data) == age) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFFF);
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 255;
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 3;
+    }
+
+    private static int age(long data) {
+        return (int) (data >>> AGE_SHIFT) & 63;
+    }
+
+    private int index(long key) {
+        return ((int) (key >>> 32) & bucketMask) * (ENTRY_LONGS * BUCKET_ENTRIES);
+    }
+}
@@ -0,0 +1,49 @@
+package chess;
+
+public final class Zobrist {
+
+    static final long[][] PIECES = new long[12][64];
+    static final long[] CASTLING = new long[16];
+    static final long[] EN_PASSANT = new long[8];
+    static final long SIDE;
+
+    static {
+        // fixed seed, so keys are stable between runs and can be stored on disk
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int code = 0; code < 12; code++) {
+            for (int square = 0; square < 64; square++) {
+                seed += 0x9E3779B97F4A7C15L;
+                PIECES[code][square] = mix(seed);
+            }
+        }
+        // CASTLING[rights] is the xor of the keys of the single rights it holds
+        long[] single = new long[4];
+        for (int i = 0; i < 4; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            single[i] = mix(seed);
+        }
+        for (int rights = 0; rights < 16; rights++) {
+            for (int i = 0; i < 4; i++) {
+                if ((rights & (1 << i)) != 0) {
+                    CASTLING[rights] ^= single[i];
+                }
+            }
+        }
+        for (int file = 0; file < 8; file++) {
+            seed += 0x9E3779B97F4A7C15L;
+            EN_PASSANT[file] = mix(seed);
+        }
+        seed += 0x9E3779B97F4A7C15L;
+        SIDE = mix(seed);
+    }
+
+    private Zobrist() {
+    }
+
+    // splitmix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
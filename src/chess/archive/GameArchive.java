@@ -0,0 +1,221 @@
+package chess.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import chess.BitBoard;
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.Move;
+import chess.pgn.PgnGame;
+
+// Memory-mapped reader of the files GameArchiveWriter produces. Any game can be replayed by its index without
+// touching the ones before it, and reads use absolute offsets, so one archive can be shared by several threads.
+//
+// Layout, big-endian:
+//   header  magic "CGA1", version (int), game count (long), index offset (long), reserved (long)
+//   games   flags (byte, bit 0 = has FEN), result (byte), move count (unsigned short),
+//           [FEN length (byte), FEN in ASCII], moves (unsigned short each)
+//   index   offset of every game (long)
+// A move is from (bits 0-5), to (6-11) and promotion type (12-14); the flags are rebuilt from the position.
+public class GameArchive implements Closeable {
+
+    static final int MAGIC = ('C' << 24) | ('G' << 16) | ('A' << 8) | '1';
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+
+    static final int HAS_FEN = 1;
+
+    // result codes, in the order of the byte stored per game
+    static final String[] RESULTS = { null, PgnGame.WHITE_WINS, PgnGame.BLACK_WINS, PgnGame.DRAW, PgnGame.UNKNOWN };
+
+    private final ByteBuffer data;
+    private final int games;
+    private final int index;
+
+    private GameArchive(ByteBuffer data) {
+        this.data = data;
+        if (data.capacity() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new ChessException("Arquivo de partidas invalido");
+        }
+        if (data.getInt(4) != VERSION) {
+            throw new ChessException("Versao de arquivo de partidas nao suportada: " + data.getInt(4));
+        }
+        long count = data.getLong(8);
+        long offset = data.getLong(16);
+        if (count < 0 || offset < HEADER_SIZE || offset + count * 8 > data.capacity()) {
+            throw new ChessException("Arquivo de partidas incompleto");
+        }
+        games = (int) count;
+        index = (int) offset;
+    }
+
+    public static GameArchive open(Path path) throws IOException {
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (file.size() > Integer.MAX_VALUE) {
+                throw new IOException("Arquivo de partidas maior que 2 GB: " + path);
+            }
+            return new GameArchive(file.map(FileChannel.MapMode.READ_ONLY, 0, file.size()));
+        }
+    }
+
+    // reads an archive already in memory, from its position to its limit
+    public static GameArchive wrap(ByteBuffer buffer) {
+        return new GameArchive(buffer.slice());
+    }
+
+    public int size() {
+        return games;
+    }
+
+    public int getMoveCount(int game) {
+        return data.getShort(offset(game) + 2) & 0xFFFF;
+    }
+
+    // one of the PgnGame result constants, or null when the game had no termination marker
+    public String getResult(int game) {
+        int code = data.get(offset(game) + 1);
+        return (code >= 0 && code < RESULTS.length) ? RESULTS[code] : null;
+    }
+
+    public String getFen(int game) {
+        int offset = offset(game);
+        if ((data.get(offset) & HAS_FEN) == 0) {
+            return BitBoard.START_FEN;
+        }
+        byte[] fen = new byte[data.get(offset + 4) & 0xFF];
+        for (int i = 0; i < fen.length; i++) {
+            fen[i] = data.get(offset + 5 + i);
+        }
+        return new String(fen, StandardCharsets.US_ASCII);
+    }
+
+    // loads the starting position of the game into the board and plays its moves; returns the move count
+    public int replay(int game, BitBoard board) {
+        return replay(game, board, null);
+    }
+
+    // same, also storing the moves in the array, which must hold getMoveCount(game) entries
+    public int replay(int game, BitBoard board, int[] moves) {
+        int offset = offset(game);
+        int count = data.getShort(offset + 2) & 0xFFFF;
+        int position = loadStart(offset, board);
+        for (int i = 0; i < count; i++, position += 2) {
+            int move = decode(board, data.getShort(position) & 0xFFFF);
+            if (moves != null) {
+                moves[i] = move;
+            }
+            board.makeMove(move);
+        }
+        return count;
+    }
+
+    // replays the game into a match, for code that wants the piece objects
+    public ChessMatch toMatch(int game) {
+        int offset = offset(game);
+        int count = data.getShort(offset + 2) & 0xFFFF;
+        BitBoard board = new BitBoard();
+        int position = loadStart(offset, board);
+        ChessMatch match = ChessMatch.fromFen(board.toFen());
+        for (int i = 0; i < count; i++, position += 2) {
+            int move = decode(board, data.getShort(position) & 0xFFFF);
+            board.makeMove(move);
+            match.performMove(move);
+        }
+        return match;
+    }
+
+    @Override
+    public void close() {
+        // the mapping is released when the buffer is collected
+    }
+
+    // returns the offset of the first move
+    private int loadStart(int offset, BitBoard board) {
+        if ((data.get(offset) & HAS_FEN) == 0) {
+            board.loadFen(BitBoard.START_FEN);
+            return offset + 4;
+        }
+        int length = data.get(offset + 4) & 0xFF;
+        board.loadFen(new AsciiSequence(data, offset + 5, length));
+        return offset + 5 + length;
+    }
+
+    private int offset(int game) {
+        if (game < 0 || game >= games) {
+            throw new IndexOutOfBoundsException("Partida " + game + " fora do arquivo de " + games);
+        }
+        return (int) data.getLong(index + game * 8);
+    }
+
+    static int encode(int move) {
+        return Move.from(move) | (Move.to(move) << 6) | (Move.promotion(move) << 12);
+    }
+
+    // the move the 16-bit code stands for in this position, with the flags the generator would give it
+    static int decode(BitBoard board, int code) {
+        int from = code & 63;
+        int to = (code >>> 6) & 63;
+        int promotion = (code >>> 12) & 7;
+        int piece = board.pieceAt(from);
+        if (piece == BitBoard.NONE || BitBoard.colorOf(piece) != board.getSideToMove()) {
+            throw new ChessException("Arquivo de partidas corrompido: lance " + Move.toString(Move.of(from, to, 0, promotion)));
+        }
+        int flags = (board.pieceAt(to) != BitBoard.NONE) ? Move.CAPTURE : 0;
+        int type = BitBoard.typeOf(piece);
+        if (type == BitBoard.PAWN) {
+            if (Math.abs(to - from) == 16) {
+                flags |= Move.DOUBLE_PUSH;
+            }
+            else if (to == board.getEnPassantSquare() && (to & 7) != (from & 7)) {
+                flags |= Move.CAPTURE | Move.EN_PASSANT;
+            }
+        }
+        else if (type == BitBoard.KING && Math.abs(to - from) == 2) {
+            flags |= Move.CASTLING;
+        }
+        return Move.of(from, to, flags, promotion);
+    }
+
+    // the stored FEN, read in place by loadFen
+    private static final class AsciiSequence implements CharSequence {
+        private final ByteBuffer data;
+        private final int start;
+        private final int length;
+
+        AsciiSequence(ByteBuffer data, int start, int length) {
+            this.data = data;
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (data.get(start + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return new AsciiSequence(data, start + from, to - from);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(length);
+            for (int i = 0; i < length; i++) {
+                sb.append(charAt(i));
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package chess.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import chess.ChessException;
+import chess.pgn.PgnGame;
+
+// Writes games in the GameArchive format. Games are appended through a buffer and the index is written on close,
+// so an archive that was not closed is rejected by the reader.
+public class GameArchiveWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_MOVES = 0xFFFF;
+    // the reader maps the whole file in one buffer, so it has int offsets
+    private static final long MAX_SIZE = Integer.MAX_VALUE;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long[] offsets = new long[1024];
+    private int games;
+    private long position;
+
+    public GameArchiveWriter(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.position(GameArchive.HEADER_SIZE);
+        position = GameArchive.HEADER_SIZE;
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    // adds a game that replayed without errors; returns false and skips it otherwise
+    public boolean add(PgnGame game) throws IOException {
+        if (!game.isValid()) {
+            return false;
+        }
+        begin(game.getTag("FEN"), game.getMoveCount(), game.getResult());
+        for (int i = 0; i < game.getMoveCount(); i++) {
+            putMove(game.getMove(i));
+        }
+        return true;
+    }
+
+    // fen is null for the standard starting position; result is one of the PgnGame constants or null
+    public void add(CharSequence fen, int[] moves, int count, String result) throws IOException {
+        begin(fen, count, result);
+        for (int i = 0; i < count; i++) {
+            putMove(moves[i]);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            long index = position;
+            for (int i = 0; i < games; i++) {
+                ensure(8);
+                buffer.putLong(offsets[i]);
+            }
+            flush();
+            ByteBuffer header = ByteBuffer.allocate(GameArchive.HEADER_SIZE);
+            header.putInt(GameArchive.MAGIC).putInt(GameArchive.VERSION).putLong(games).putLong(index).putLong(0);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    private void begin(CharSequence fen, int count, String result) throws IOException {
+        if (count > MAX_MOVES) {
+            throw new ChessException("Partida longa demais para o arquivo: " + count + " lances");
+        }
+        if (fen != null && fen.length() > 255) {
+            throw new ChessException("FEN longa demais para o arquivo: " + fen);
+        }
+        // the game and every entry of the index, its own included, have to fit; the games already written stay
+        // readable, as the archive can still be closed
+        long size = 4 + ((fen != null) ? 1 + fen.length() : 0) + 2L * count;
+        if (position + size + 8L * (games + 1) > MAX_SIZE) {
+            throw new IOException("Arquivo de partidas passaria de 2 GB com a partida " + (games + 1));
+        }
+        if (games == offsets.length) {
+            offsets = Arrays.copyOf(offsets, games * 2);
+        }
+        offsets[games++] = position;
+
+        ensure(5 + ((fen != null) ? fen.length() : 0));
+        buffer.put((byte) ((fen != null) ? GameArchive.HAS_FEN : 0));
+        buffer.put((byte) resultCode(result));
+        buffer.putShort((short) count);
+        position += 4;
+        if (fen != null) {
+            buffer.put((byte) fen.length());
+            for (int i = 0; i < fen.length(); i++) {
+                buffer.put((byte) fen.charAt(i));
+            }
+            position += 1 + fen.length();
+        }
+    }
+
+    private void putMove(int move) throws IOException {
+        ensure(2);
+        buffer.putShort((short) GameArchive.encode(move));
+        position += 2;
+    }
+
+    private static int resultCode(String result) {
+        for (int i = 1; i < GameArchive.RESULTS.length; i++) {
+            if (GameArchive.RESULTS[i].equals(result)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
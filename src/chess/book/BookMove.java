@@ -0,0 +1,38 @@
+package chess.book;
+
+import chess.ChessPosition;
+import chess.Move;
+
+// A move found in the opening book and how often the book wants it played.
+public class BookMove {
+
+    private final int move;
+    private final int weight;
+
+    public BookMove(int move, int weight) {
+        this.move = move;
+        this.weight = weight;
+    }
+
+    // the move as the generator encodes it, ready for ChessMatch.performMove
+    public int getMove() {
+        return move;
+    }
+
+    public ChessPosition getSource() {
+        return ChessPosition.fromSquare(Move.from(move));
+    }
+
+    public ChessPosition getTarget() {
+        return ChessPosition.fromSquare(Move.to(move));
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return Move.toString(move) + " (peso " + weight + ")";
+    }
+}
@@ -0,0 +1,144 @@
+package chess.book;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import chess.BitBoard;
+import chess.ChessException;
+import chess.Move;
+
+// A Polyglot .bin opening book, memory-mapped and searched in place. The file is a sorted array of 16-byte
+// big-endian entries: key (long), move (short), weight (short) and learn data (int), so a probe is a binary
+// search over the mapping and nothing of the book is copied to the heap.
+public class PolyglotBook implements Closeable {
+
+    private static final int ENTRY_SIZE = 16;
+
+    private final ByteBuffer data;
+    private final int entries;
+    private final PolyglotKey keys;
+    private final int[] legal = new int[Move.MAX_MOVES];
+
+    private PolyglotBook(ByteBuffer data, PolyglotKey keys) {
+        if (data.capacity() % ENTRY_SIZE != 0) {
+            throw new ChessException("Livro de aberturas invalido: tamanho nao e multiplo de " + ENTRY_SIZE);
+        }
+        this.data = data;
+        this.entries = data.capacity() / ENTRY_SIZE;
+        this.keys = keys;
+    }
+
+    public static PolyglotBook open(Path path) throws IOException {
+        return open(path, PolyglotKey.getDefault());
+    }
+
+    public static PolyglotBook open(Path path, PolyglotKey keys) throws IOException {
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (file.size() > Integer.MAX_VALUE) {
+                throw new IOException("Livro de aberturas maior que 2 GB: " + path);
+            }
+            return new PolyglotBook(file.map(FileChannel.MapMode.READ_ONLY, 0, file.size()), keys);
+        }
+    }
+
+    // a book already in memory, from its position to its limit
+    public static PolyglotBook wrap(ByteBuffer buffer, PolyglotKey keys) {
+        return new PolyglotBook(buffer.slice(), keys);
+    }
+
+    public int size() {
+        return entries;
+    }
+
+    public PolyglotKey getKeys() {
+        return keys;
+    }
+
+    // the book moves for the position that are legal in it, in book order (best first)
+    public synchronized List<BookMove> probe(BitBoard board) {
+        List<BookMove> list = new ArrayList<>();
+        long key = keys.key(board);
+        int count = board.generateLegalMoves(legal);
+        for (int i = find(key); i < entries && data.getLong(i * ENTRY_SIZE) == key; i++) {
+            int move = toMove(board, data.getShort(i * ENTRY_SIZE + 8) & 0xFFFF, count);
+            if (move != Move.NONE) {
+                list.add(new BookMove(move, data.getShort(i * ENTRY_SIZE + 10) & 0xFFFF));
+            }
+        }
+        return list;
+    }
+
+    // a book move picked at random in proportion to its weight, or Move.NONE when the position is not in the book
+    public synchronized int chooseMove(BitBoard board, Random random) {
+        long key = keys.key(board);
+        int count = board.generateLegalMoves(legal);
+        int first = find(key);
+        int total = 0;
+        for (int i = first; i < entries && data.getLong(i * ENTRY_SIZE) == key; i++) {
+            if (toMove(board, data.getShort(i * ENTRY_SIZE + 8) & 0xFFFF, count) != Move.NONE) {
+                total += data.getShort(i * ENTRY_SIZE + 10) & 0xFFFF;
+            }
+        }
+        if (total == 0) {
+            return Move.NONE;
+        }
+        int pick = random.nextInt(total);
+        for (int i = first; ; i++) {
+            int move = toMove(board, data.getShort(i * ENTRY_SIZE + 8) & 0xFFFF, count);
+            if (move != Move.NONE) {
+                pick -= data.getShort(i * ENTRY_SIZE + 10) & 0xFFFF;
+                if (pick < 0) {
+                    return move;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        // the mapping is released when the buffer is collected
+    }
+
+    // first entry whose key is not below the given one; keys are compared unsigned, as the book sorts them
+    private int find(long key) {
+        int low = 0;
+        int high = entries;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(data.getLong(middle * ENTRY_SIZE), key) < 0) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // the legal move with the book move's squares and promotion, or Move.NONE when a key collision put it there
+    private int toMove(BitBoard board, int bookMove, int count) {
+        int to = bookMove & 63;
+        int from = (bookMove >>> 6) & 63;
+        int promotion = (bookMove >>> 12) & 7;
+        // Polyglot writes castling as the king taking its own rook
+        int piece = board.pieceAt(from);
+        if (piece != BitBoard.NONE && BitBoard.typeOf(piece) == BitBoard.KING
+                && board.pieceAt(to) == BitBoard.code(BitBoard.colorOf(piece), BitBoard.ROOK)) {
+            to = (to > from) ? from + 2 : from - 2;
+        }
+        for (int i = 0; i < count; i++) {
+            int move = legal[i];
+            if (Move.from(move) == from && Move.to(move) == to && Move.promotion(move) == promotion) {
+                return move;
+            }
+        }
+        return Move.NONE;
+    }
+}
@@ -0,0 +1,134 @@
+package chess.book;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import chess.Attacks;
+import chess.BitBoard;
+import chess.ChessException;
+
+// The position hash Polyglot books are sorted by. It is not our Zobrist key: Polyglot fixes its own 781 random
+// numbers, and books only work with exactly those. They ship as the resource polyglot-random64.txt next to this
+// class, the values in order as hexadecimal; the chess.polyglot.random property names another file to use instead.
+public final class PolyglotKey {
+
+    public static final int SIZE = 781;
+
+    private static final int CASTLING = 768;
+    private static final int EN_PASSANT = 772;
+    private static final int TURN = 780;
+
+    // key of the starting position given by the Polyglot format, used to check the table
+    private static final long START_KEY = 0x463B96181691FC9CL;
+
+    private static final String RESOURCE = "polyglot-random64.txt";
+    private static final String PROPERTY = "chess.polyglot.random";
+    private static final Pattern HEX = Pattern.compile("(?:0[xX])?([0-9A-Fa-f]{16})");
+
+    private static PolyglotKey standard;
+
+    private final long[] random;
+
+    PolyglotKey(long[] random) {
+        this.random = random;
+    }
+
+    public static synchronized PolyglotKey getDefault() throws IOException {
+        if (standard == null) {
+            String path = System.getProperty(PROPERTY);
+            if (path != null) {
+                standard = load(Paths.get(path));
+            }
+            else {
+                try (InputStream in = PolyglotKey.class.getResourceAsStream(RESOURCE)) {
+                    if (in == null) {
+                        throw new ChessException("Tabela Random64 do Polyglot nao encontrada: " + RESOURCE
+                                + " falta no pacote chess.book; indique o arquivo em -D" + PROPERTY);
+                    }
+                    standard = load(in);
+                }
+            }
+        }
+        return standard;
+    }
+
+    public static PolyglotKey load(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return load(in);
+        }
+    }
+
+    public static PolyglotKey load(InputStream in) throws IOException {
+        StringBuilder text = new StringBuilder();
+        Reader reader = new InputStreamReader(in, StandardCharsets.US_ASCII);
+        char[] chunk = new char[8192];
+        int n;
+        while ((n = reader.read(chunk)) > 0) {
+            text.append(chunk, 0, n);
+        }
+        long[] random = new long[SIZE];
+        int count = 0;
+        Matcher matcher = HEX.matcher(text);
+        while (matcher.find()) {
+            if (count == SIZE) {
+                throw new ChessException("Tabela Random64 com mais de " + SIZE + " valores");
+            }
+            random[count++] = Long.parseUnsignedLong(matcher.group(1), 16);
+        }
+        if (count != SIZE) {
+            throw new ChessException("Tabela Random64 com " + count + " valores, esperados " + SIZE);
+        }
+        PolyglotKey keys = new PolyglotKey(random);
+        if (keys.key(BitBoard.fromFen(BitBoard.START_FEN)) != START_KEY) {
+            throw new ChessException("Tabela Random64 invalida: a chave da posicao inicial nao confere");
+        }
+        return keys;
+    }
+
+    public long key(BitBoard board) {
+        long key = 0;
+        for (int color = BitBoard.WHITE; color <= BitBoard.BLACK; color++) {
+            for (int type = BitBoard.PAWN; type <= BitBoard.KING; type++) {
+                // Polyglot orders the pieces black pawn, white pawn, black knight, ...
+                int base = 64 * (2 * type + ((color == BitBoard.WHITE) ? 1 : 0));
+                for (long bits = board.pieces(color, type); bits != 0; bits &= bits - 1) {
+                    key ^= random[base + Long.numberOfTrailingZeros(bits)];
+                }
+            }
+        }
+
+        int rights = board.getCastlingRights();
+        if ((rights & BitBoard.WHITE_KINGSIDE) != 0) {
+            key ^= random[CASTLING];
+        }
+        if ((rights & BitBoard.WHITE_QUEENSIDE) != 0) {
+            key ^= random[CASTLING + 1];
+        }
+        if ((rights & BitBoard.BLACK_KINGSIDE) != 0) {
+            key ^= random[CASTLING + 2];
+        }
+        if ((rights & BitBoard.BLACK_QUEENSIDE) != 0) {
+            key ^= random[CASTLING + 3];
+        }
+
+        // the en passant file only counts when a pawn of the side to move stands next to the pawn that just moved
+        int us = board.getSideToMove();
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant != BitBoard.NONE && (Attacks.pawn(1 - us, enPassant) & board.pieces(us, BitBoard.PAWN)) != 0) {
+            key ^= random[EN_PASSANT + (enPassant & 7)];
+        }
+
+        if (us == BitBoard.WHITE) {
+            key ^= random[TURN];
+        }
+        return key;
+    }
+}
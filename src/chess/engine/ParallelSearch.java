@@ -0,0 +1,143 @@
+package chess.engine;
+
+import java.util.function.Consumer;
+
+import chess.BitBoard;
+import chess.ChessMatch;
+import chess.Move;
+import chess.TranspositionTable;
+import chess.tablebase.Tablebase;
+
+// Lazy SMP: every thread runs the whole iterative deepening on its own copy of the position and the only thing
+// they share is the lock-free transposition table. Helpers start one ply deeper on odd threads, so they fill
+// the table ahead of the main thread instead of repeating its work.
+public class ParallelSearch {
+
+    private final Search[] workers;
+    private final TranspositionTable table;
+    private long elapsed;
+    private int bestWorker;
+
+    public ParallelSearch(ChessMatch match, int threads, int megabytes) {
+        this(match.copyBitBoard(), threads, new TranspositionTable(megabytes));
+    }
+
+    public ParallelSearch(BitBoard board, int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Numero de threads deve ser ao menos 1");
+        }
+        this.table = table;
+        workers = new Search[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Search(new BitBoard(board), table);
+            workers[i].setDepthOffset(i & 1);
+        }
+    }
+
+    public int getThreads() {
+        return workers.length;
+    }
+
+    public void setTablebase(Tablebase tablebase) {
+        for (Search worker : workers) {
+            worker.setTablebase(tablebase);
+        }
+    }
+
+    // reports the main thread's finished depths; the node counts of the other threads are in getNodes
+    public void setListener(Consumer<? super Search> listener) {
+        workers[0].setListener(listener);
+    }
+
+    public int bestMove(int depth) {
+        return search(depth, 0L);
+    }
+
+    public int bestMoveInTime(long millis) {
+        return search(Search.MAX_PLY - 1, Math.max(1L, millis));
+    }
+
+    public void stop() {
+        for (Search worker : workers) {
+            worker.stop();
+        }
+    }
+
+    public void clear() {
+        for (Search worker : workers) {
+            worker.clear();
+        }
+    }
+
+    // nodes of all threads together
+    public long getNodes() {
+        long nodes = 0;
+        for (Search worker : workers) {
+            nodes += worker.getNodes();
+        }
+        return nodes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsed / 1000000;
+    }
+
+    public long getNodesPerSecond() {
+        return getNodes() * 1000000000L / Math.max(1L, elapsed);
+    }
+
+    public int getScore() {
+        return workers[bestWorker].getScore();
+    }
+
+    public int getDepth() {
+        return workers[bestWorker].getDepth();
+    }
+
+    public int getPrincipalVariation(int[] pv) {
+        return workers[bestWorker].getPrincipalVariation(pv);
+    }
+
+    public int getHashfull() {
+        return table.hashfull();
+    }
+
+    private int search(int depth, long millis) {
+        long start = System.nanoTime();
+        for (Search worker : workers) {
+            worker.resetStop();
+        }
+        // one age per search; entries the threads store during it must all look current
+        table.newSearch();
+        Thread[] helpers = new Thread[workers.length - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            Search helper = workers[i + 1];
+            // helpers search until the main thread is done with them
+            helpers[i] = new Thread(() -> helper.search(Search.MAX_PLY - 1, 0L), "search-" + (i + 1));
+            helpers[i].setDaemon(true);
+            helpers[i].start();
+        }
+
+        workers[0].search(depth, millis);
+        stop();
+        for (Thread helper : helpers) {
+            try {
+                helper.join();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        elapsed = System.nanoTime() - start;
+
+        // a helper that finished a deeper iteration than the main thread has the better answer
+        bestWorker = 0;
+        for (int i = 1; i < workers.length; i++) {
+            if (workers[i].getDepth() > workers[bestWorker].getDepth() && workers[i].getDepth() <= depth
+                    && workers[i].getBestMove() != Move.NONE) {
+                bestWorker = i;
+            }
+        }
+        return workers[bestWorker].getBestMove();
+    }
+}
@@ -0,0 +1,458 @@
+package chess.engine;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import chess.BitBoard;
+import chess.ChessMatch;
+import chess.Move;
+import chess.TranspositionTable;
+import chess.tablebase.Tablebase;
+
+// Negamax alpha-beta with iterative deepening and a quiescence search over captures and promotions.
+// It searches its own BitBoard with make/unmake, so nothing of the match is touched until the caller plays the move.
+public class Search {
+
+    public static final int INFINITY = 32000;
+    public static final int MATE = 31000;
+    public static final int MAX_PLY = 128;
+
+    // rough centipawn values by piece type, only for ordering captures; the king is never captured
+    static final int[] VALUES = { 100, 320, 330, 500, 900, 0 };
+
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 27;
+    private static final int HISTORY_LIMIT = 1 << 26;
+
+    private final BitBoard board;
+    private final TranspositionTable table;
+    private Tablebase tablebase;
+    private Consumer<? super Search> listener;
+
+    private final int[][] moves = new int[MAX_PLY][Move.MAX_MOVES];
+    private final int[][] scores = new int[MAX_PLY][Move.MAX_MOVES];
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][] history = new int[12][64];
+    private final int[] tablebaseSquares = new int[Tablebase.MAX_PIECES];
+
+    private volatile boolean stopped;
+    private long deadline;
+    private long startTime;
+    private long elapsed;
+    private long nodes;
+
+    // a helper thread of the parallel search starts this many plies deeper, so threads spread over depths
+    private int depthOffset;
+
+    private int rootMove;
+    private int bestMove;
+    private int bestScore;
+    private int completedDepth;
+
+    public Search(ChessMatch match) {
+        this(match.copyBitBoard(), new TranspositionTable(16));
+    }
+
+    public Search(BitBoard board, TranspositionTable table) {
+        this.board = board;
+        this.table = table;
+    }
+
+    public BitBoard getBoard() {
+        return board;
+    }
+
+    // searches every depth up to the given one
+    public int bestMove(int depth) {
+        stopped = false;
+        table.newSearch();
+        return search(depth, 0L);
+    }
+
+    // searches deeper until the time runs out and returns the move of the last finished depth
+    public int bestMoveInTime(long millis) {
+        stopped = false;
+        table.newSearch();
+        return search(MAX_PLY - 1, Math.max(1L, millis));
+    }
+
+    // the running search returns as soon as it sees the flag, with the best move found so far
+    public void stop() {
+        stopped = true;
+    }
+
+    // kept apart from search, so a stop sent before a helper thread gets to run is not lost
+    void resetStop() {
+        stopped = false;
+    }
+
+    public void clear() {
+        table.clear();
+        for (int[] h : history) {
+            Arrays.fill(h, 0);
+        }
+    }
+
+    // positions in the tables are scored from them instead of searched; null turns the probes off
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    // called on the searching thread after every finished depth, with the board back at the root
+    public void setListener(Consumer<? super Search> listener) {
+        this.listener = listener;
+    }
+
+    void setDepthOffset(int depthOffset) {
+        this.depthOffset = depthOffset;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsed / 1000000;
+    }
+
+    public long getNodesPerSecond() {
+        return nodes * 1000000000L / Math.max(1L, elapsed);
+    }
+
+    // best move of the last finished depth
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    public int getScore() {
+        return bestScore;
+    }
+
+    public int getDepth() {
+        return completedDepth;
+    }
+
+    // the best move and the replies the transposition table remembers after it; returns the length of the line.
+    // Only valid while the board is at the root: from a listener or after the search
+    public int getPrincipalVariation(int[] pv) {
+        int[] legal = new int[Move.MAX_MOVES];
+        int length = 0;
+        int move = bestMove;
+        while (move != Move.NONE && length < pv.length && contains(legal, board.generateLegalMoves(legal), move)) {
+            pv[length++] = move;
+            board.makeMove(move);
+            if (board.isRepetition()) {
+                break;
+            }
+            long data = table.probe(board.getKey());
+            move = (data != 0L) ? TranspositionTable.move(data) : Move.NONE;
+        }
+        for (int i = 0; i < length; i++) {
+            board.unmakeMove();
+        }
+        return length;
+    }
+
+    private static boolean contains(int[] list, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (list[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the caller ages the table: once per search, however many threads share it
+    int search(int maxDepth, long millis) {
+        nodes = 0;
+        startTime = System.nanoTime();
+        deadline = (millis > 0) ? startTime + millis * 1000000L : Long.MAX_VALUE;
+        bestMove = Move.NONE;
+        bestScore = 0;
+        completedDepth = 0;
+        for (int[] k : killers) {
+            k[0] = Move.NONE;
+            k[1] = Move.NONE;
+        }
+        // old history still orders well, but should not outweigh what this search learns
+        for (int[] h : history) {
+            for (int i = 0; i < 64; i++) {
+                h[i] >>= 2;
+            }
+        }
+
+        // a root in the tables needs no search, and a search would only see the first mate it reaches
+        if (tablebase != null) {
+            int value = tablebase.probe(board, tablebaseSquares);
+            int move = (value != Tablebase.UNKNOWN) ? tablebase.bestMove(board, moves[0], tablebaseSquares) : Move.NONE;
+            if (move != Move.NONE) {
+                bestMove = move;
+                bestScore = tablebaseScore(value, 0);
+                completedDepth = 1;
+                elapsed = System.nanoTime() - startTime;
+                if (listener != null) {
+                    listener.accept(this);
+                }
+                return bestMove;
+            }
+        }
+
+        // a stop before the first iteration ends still has to answer with a legal move: the one ordered first
+        int count = board.generateLegalMoves(moves[0]);
+        if (count > 0) {
+            long data = table.probe(board.getKey());
+            scoreMoves(0, count, (data != 0L) ? TranspositionTable.move(data) : Move.NONE);
+            bestMove = nextMove(0, 0, count);
+        }
+
+        for (int depth = 1 + depthOffset; depth <= Math.min(maxDepth, MAX_PLY - 1); depth++) {
+            rootMove = Move.NONE;
+            int score = alphaBeta(depth, 0, -INFINITY, INFINITY);
+            if (stopped) {
+                // a partial iteration is only trusted when there is nothing better
+                if (completedDepth == 0 && rootMove != Move.NONE) {
+                    bestMove = rootMove;
+                }
+                break;
+            }
+            bestMove = rootMove;
+            bestScore = score;
+            completedDepth = depth;
+            if (listener != null) {
+                elapsed = System.nanoTime() - startTime;
+                listener.accept(this);
+            }
+            if (Math.abs(score) >= MATE - MAX_PLY) {
+                break;
+            }
+            // the next depth costs several times this one, so it would not finish anyway
+            if (millis > 0 && System.nanoTime() - startTime > (deadline - startTime) / 2) {
+                break;
+            }
+        }
+        elapsed = System.nanoTime() - startTime;
+        return bestMove;
+    }
+
+    private int alphaBeta(int depth, int ply, int alpha, int beta) {
+        if ((++nodes & 2047) == 0) {
+            checkTime();
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (ply > 0 && (board.isFiftyMoveRule() || board.isRepetition() || board.isInsufficientMaterial())) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return board.evaluate();
+        }
+        if (ply > 0 && tablebase != null) {
+            int value = tablebase.probe(board, tablebaseSquares);
+            if (value != Tablebase.UNKNOWN) {
+                return tablebaseScore(value, ply);
+            }
+        }
+
+        int us = board.getSideToMove();
+        boolean inCheck = board.inCheck(us);
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiescence(ply, alpha, beta);
+        }
+
+        int hashMove = Move.NONE;
+        long data = table.probe(board.getKey());
+        if (data != 0L) {
+            hashMove = TranspositionTable.move(data);
+            if (ply > 0 && TranspositionTable.depth(data) >= depth) {
+                int score = fromTable(TranspositionTable.score(data), ply);
+                int bound = TranspositionTable.bound(data);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int count = board.generateLegalMoves(moves[ply]);
+        scoreMoves(ply, count, hashMove);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestLocal = Move.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = nextMove(ply, i, count);
+            board.makeMove(move);
+            int score = -alphaBeta(depth - 1, ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                bestLocal = move;
+                if (ply == 0) {
+                    rootMove = move;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        if (!Move.isCapture(move) && !Move.isPromotion(move)) {
+                            updateQuiet(move, ply, depth);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (count == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+
+        int bound = (best >= beta) ? TranspositionTable.LOWER
+                : (best > originalAlpha) ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(board.getKey(), bestLocal, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    private int quiescence(int ply, int alpha, int beta) {
+        if ((++nodes & 2047) == 0) {
+            checkTime();
+        }
+        if (stopped) {
+            return 0;
+        }
+        int standPat = board.evaluate();
+        if (ply >= MAX_PLY - 1 || standPat >= beta) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+
+        int count = board.generateLegalCaptures(moves[ply]);
+        scoreMoves(ply, count, Move.NONE);
+        for (int i = 0; i < count; i++) {
+            int move = nextMove(ply, i, count);
+            board.makeMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > alpha) {
+                alpha = score;
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+        return alpha;
+    }
+
+    // the first depth always finishes, so there is a move to return however short the time
+    private void checkTime() {
+        if (completedDepth > 0 && System.nanoTime() > deadline) {
+            stopped = true;
+        }
+    }
+
+    // hash move first, then captures by most valuable victim and least valuable attacker, killers and history
+    private void scoreMoves(int ply, int count, int hashMove) {
+        int[] list = moves[ply];
+        int[] score = scores[ply];
+        for (int i = 0; i < count; i++) {
+            int move = list[i];
+            if (move == hashMove) {
+                score[i] = HASH_MOVE_SCORE;
+            }
+            else if (Move.isCapture(move) || Move.isPromotion(move)) {
+                int victim = ((Move.flags(move) & Move.EN_PASSANT) != 0 || !Move.isCapture(move)) ? BitBoard.PAWN
+                        : BitBoard.typeOf(board.pieceAt(Move.to(move)));
+                int attacker = BitBoard.typeOf(board.pieceAt(Move.from(move)));
+                int promotion = Move.isPromotion(move) ? VALUES[Move.promotion(move)] : 0;
+                score[i] = CAPTURE_SCORE + (Move.isCapture(move) ? VALUES[victim] : 0) * 16 + promotion * 16 - attacker;
+            }
+            else if (move == killers[ply][0] || move == killers[ply][1]) {
+                score[i] = (move == killers[ply][0]) ? KILLER_SCORE + 1 : KILLER_SCORE;
+            }
+            else {
+                score[i] = history[board.pieceAt(Move.from(move))][Move.to(move)];
+            }
+        }
+    }
+
+    // selection sort one step at a time: a cutoff usually comes before the list would be fully sorted
+    private int nextMove(int ply, int index, int count) {
+        int[] list = moves[ply];
+        int[] score = scores[ply];
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (score[i] > score[best]) {
+                best = i;
+            }
+        }
+        int move = list[best];
+        list[best] = list[index];
+        list[index] = move;
+        int s = score[best];
+        score[best] = score[index];
+        score[index] = s;
+        return move;
+    }
+
+    private void updateQuiet(int move, int ply, int depth) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] h = history[board.pieceAt(Move.from(move))];
+        int to = Move.to(move);
+        h[to] += depth * depth;
+        if (h[to] >= HISTORY_LIMIT) {
+            for (int[] row : history) {
+                for (int i = 0; i < 64; i++) {
+                    row[i] >>= 1;
+                }
+            }
+        }
+    }
+
+    // a mate the tables announce is scored like one the search found; one too far for MAX_PLY still beats any evaluation
+    private static int tablebaseScore(int value, int ply) {
+        if (value == Tablebase.DRAW) {
+            return 0;
+        }
+        int distance = ply + Tablebase.distance(value);
+        int score = (distance < MAX_PLY) ? MATE - distance : MATE - MAX_PLY - 1 - Tablebase.distance(value);
+        return Tablebase.isWin(value) ? score : -score;
+    }
+
+    // mate scores are stored as distance from this node, so they stay right when reached at another ply
+    private static int toTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+}
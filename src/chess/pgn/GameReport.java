@@ -0,0 +1,96 @@
+package chess.pgn;
+
+import chess.BitBoard;
+
+// Outcome of validating one game, detached from the reused PgnGame so it can cross threads.
+public class GameReport {
+
+    private long number;
+    private final boolean valid;
+    private final String error;
+    private final int moves;
+    private final String fen;
+    private final String result;
+    private final String resultTag;
+    private final boolean resultMismatch;
+
+    // buffer is scratch space for the final position's legal moves
+    GameReport(PgnGame game, long number, int[] buffer) {
+        this.number = number;
+        valid = game.isValid();
+        error = game.getError();
+        moves = game.getMoveCount();
+        fen = game.getBoard().toFen();
+        result = game.getResult();
+        CharSequence tag = game.getTag("Result");
+        resultTag = (tag == null) ? null : tag.toString();
+        resultMismatch = isMismatch(game, resultTag, buffer);
+    }
+
+    // the Result tag disagrees with the termination marker, or the final position is a mate the result ignores
+    private static boolean isMismatch(PgnGame game, String resultTag, int[] buffer) {
+        String result = game.getResult();
+        if (resultTag != null && result != null && !resultTag.equals(result)) {
+            return true;
+        }
+        if (!game.isValid() || result == null || result.equals(PgnGame.UNKNOWN)) {
+            return false;
+        }
+        BitBoard board = game.getBoard();
+        if (board.generateLegalMoves(buffer) == 0) {
+            if (board.inCheck(board.getSideToMove())) {
+                return !result.equals((board.getSideToMove() == BitBoard.WHITE) ? PgnGame.BLACK_WINS : PgnGame.WHITE_WINS);
+            }
+            return !result.equals(PgnGame.DRAW);
+        }
+        return false;
+    }
+
+    // position of the game in the file, starting at 1
+    public long getNumber() {
+        return number;
+    }
+
+    // chunks number their games from 1, the pipeline renumbers them in file order
+    void setNumber(long number) {
+        this.number = number;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public int getMoves() {
+        return moves;
+    }
+
+    public String getFen() {
+        return fen;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public String getResultTag() {
+        return resultTag;
+    }
+
+    public boolean isResultMismatch() {
+        return resultMismatch;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Jogo ").append(number).append(": ");
+        sb.append(valid ? "valido" : "invalido (" + error + ")");
+        if (resultMismatch) {
+            sb.append(", resultado ").append(result).append(" nao confere (tag ").append(resultTag).append(')');
+        }
+        return sb.append(", ").append(fen).toString();
+    }
+}
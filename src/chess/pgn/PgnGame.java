@@ -0,0 +1,180 @@
+package chess.pgn;
+
+import java.util.Arrays;
+
+import chess.BitBoard;
+import chess.ChessException;
+import chess.ChessMatch;
+
+// One game of a PGN stream: its tags, the moves that replayed legally and the position they lead to.
+// PgnReader fills the same object game after game, so reading a file allocates next to nothing; copy out
+// whatever has to outlive the next call.
+public class PgnGame {
+
+    public static final String WHITE_WINS = "1-0";
+    public static final String BLACK_WINS = "0-1";
+    public static final String DRAW = "1/2-1/2";
+    public static final String UNKNOWN = "*";
+
+    private final BitBoard board = new BitBoard();
+
+    private StringBuilder[] tagNames = new StringBuilder[0];
+    private StringBuilder[] tagValues = new StringBuilder[0];
+    private int tagCount;
+
+    private int[] moves = new int[256];
+    private int moveCount;
+
+    private long number;
+    private String result;
+    private String error;
+
+    public PgnGame() {
+        board.loadFen(BitBoard.START_FEN);
+    }
+
+    // position of the game in the stream, starting at 1
+    public long getNumber() {
+        return number;
+    }
+
+    public int getTagCount() {
+        return tagCount;
+    }
+
+    public CharSequence getTagName(int index) {
+        return tagNames[index];
+    }
+
+    public CharSequence getTagValue(int index) {
+        return tagValues[index];
+    }
+
+    // value of the tag with this name, or null
+    public CharSequence getTag(CharSequence name) {
+        for (int i = 0; i < tagCount; i++) {
+            if (equals(tagNames[i], name)) {
+                return tagValues[i];
+            }
+        }
+        return null;
+    }
+
+    private static boolean equals(CharSequence a, CharSequence b) {
+        if (a.length() != b.length()) {
+            return false;
+        }
+        for (int i = 0; i < a.length(); i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public int getMove(int index) {
+        return moves[index];
+    }
+
+    // the position after the last move that replayed, which is the final one when the game is valid
+    public BitBoard getBoard() {
+        return board;
+    }
+
+    // the termination marker of the move text, one of the result constants, or null when the game was cut short
+    public String getResult() {
+        return result;
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    // replays the game into a match from its starting position, for code that wants the piece objects
+    public ChessMatch toMatch() {
+        CharSequence fen = getTag("FEN");
+        ChessMatch match = ChessMatch.fromFen((fen != null) ? fen : BitBoard.START_FEN);
+        for (int i = 0; i < moveCount; i++) {
+            match.performMove(moves[i]);
+        }
+        return match;
+    }
+
+    void reset(long number) {
+        this.number = number;
+        tagCount = 0;
+        moveCount = 0;
+        result = null;
+        error = null;
+    }
+
+    StringBuilder addTagName() {
+        if (tagCount == tagNames.length) {
+            tagNames = Arrays.copyOf(tagNames, Math.max(8, tagCount * 2));
+            tagValues = Arrays.copyOf(tagValues, tagNames.length);
+        }
+        if (tagNames[tagCount] == null) {
+            tagNames[tagCount] = new StringBuilder(16);
+            tagValues[tagCount] = new StringBuilder(32);
+        }
+        tagNames[tagCount].setLength(0);
+        tagValues[tagCount].setLength(0);
+        return tagNames[tagCount];
+    }
+
+    StringBuilder tagValue() {
+        return tagValues[tagCount];
+    }
+
+    void endTag() {
+        tagCount++;
+    }
+
+    // called when the move text starts, after all tags are known
+    void startPosition() {
+        CharSequence fen = getTag("FEN");
+        try {
+            board.loadFen((fen != null) ? fen : BitBoard.START_FEN);
+        }
+        catch (ChessException e) {
+            board.loadFen(BitBoard.START_FEN);
+            fail(e.getMessage());
+            return;
+        }
+        if (board.pieceCount(BitBoard.WHITE, BitBoard.KING) != 1 || board.pieceCount(BitBoard.BLACK, BitBoard.KING) != 1) {
+            board.loadFen(BitBoard.START_FEN);
+            fail("FEN invalida, cada lado precisa de um rei: " + fen);
+        }
+    }
+
+    void addMove(int move) {
+        if (moveCount == moves.length) {
+            moves = Arrays.copyOf(moves, moveCount * 2);
+        }
+        moves[moveCount++] = move;
+        board.makeMove(move);
+    }
+
+    void setResult(String result) {
+        this.result = result;
+    }
+
+    void fail(String error) {
+        if (this.error == null) {
+            this.error = error;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Jogo " + number + " (" + moveCount + " lances" + (isValid() ? ")" : ", " + error + ")");
+    }
+}
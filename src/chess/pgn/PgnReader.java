@@ -0,0 +1,307 @@
+package chess.pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+import chess.BitBoard;
+import chess.Move;
+
+// Reads PGN one game at a time from a channel or a (memory-mapped) buffer and replays the moves with the legal
+// move generator. Memory use is the read buffer plus one reused PgnGame, whatever the size of the input.
+// Comments, variations, NAGs, escape lines and "e.p." marks are skipped; a game ends at its result or at the next tag.
+public class PgnReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_TOKEN = 32;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] token = new byte[MAX_TOKEN];
+    private final int[] legal = new int[Move.MAX_MOVES];
+    private long games;
+
+    public PgnReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.flip();
+    }
+
+    // reads the remaining bytes of the buffer without moving its position
+    public PgnReader(ByteBuffer buffer) {
+        this.channel = null;
+        this.buffer = buffer.duplicate();
+    }
+
+    // maps the file when it fits in one buffer and streams it through the channel when it does not
+    public static PgnReader open(Path path) throws IOException {
+        FileChannel file = FileChannel.open(path, StandardOpenOption.READ);
+        if (file.size() > Integer.MAX_VALUE) {
+            return new PgnReader(file);
+        }
+        try {
+            return new PgnReader(file.map(FileChannel.MapMode.READ_ONLY, 0, file.size()));
+        }
+        finally {
+            file.close();
+        }
+    }
+
+    // games read so far
+    public long getGames() {
+        return games;
+    }
+
+    // reads the next game into the given object and returns false when the input is over
+    public boolean next(PgnGame game) throws IOException {
+        game.reset(games + 1);
+        boolean started = false;
+        boolean inMoves = false;
+        while (true) {
+            int c = skipSpaces();
+            if (c < 0) {
+                if (started) {
+                    games++;
+                    if (inMoves) {
+                        game.fail("Jogo sem resultado no fim do arquivo");
+                    }
+                }
+                return started;
+            }
+            if (c == '[') {
+                // a tag after the move text belongs to the next game, whose result was left out
+                if (inMoves) {
+                    games++;
+                    game.fail("Jogo sem resultado");
+                    return true;
+                }
+                read();
+                readTag(game);
+                started = true;
+                continue;
+            }
+            read();
+            switch (c) {
+            case '{':
+                skipUntil('}');
+                continue;
+            case ';':
+            case '%':
+                skipUntil('\n');
+                continue;
+            case '(':
+                skipVariation();
+                continue;
+            case ')':
+            case '}':
+            case ']':
+                continue;
+            case '$':
+                skipToken();
+                continue;
+            default:
+                break;
+            }
+
+            int length = readToken(c);
+            started = true;
+            if (!inMoves) {
+                inMoves = true;
+                game.startPosition();
+            }
+            String result = result(length);
+            if (result != null) {
+                game.setResult(result);
+                games++;
+                return true;
+            }
+            int start = skipMoveNumber(length);
+            if (start < length && game.isValid() && !isEnPassantMark(start, length)) {
+                playMove(game, start, length);
+            }
+        }
+    }
+
+    // calls the action with every game of the input, always on the same PgnGame object
+    public void forEach(Consumer<? super PgnGame> action) throws IOException {
+        PgnGame game = new PgnGame();
+        while (next(game)) {
+            action.accept(game);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void playMove(PgnGame game, int start, int length) {
+        length = Math.min(length, MAX_TOKEN) - start;
+        System.arraycopy(token, start, token, 0, length);
+        int move = San.parse(game.getBoard(), token, length, legal);
+        if (move == Move.NONE) {
+            BitBoard board = game.getBoard();
+            game.fail("Lance invalido " + new String(token, 0, length, StandardCharsets.US_ASCII)
+                    + " no lance " + board.getFullmoveNumber() + ((board.getSideToMove() == BitBoard.WHITE) ? "." : "..."));
+            return;
+        }
+        game.addMove(move);
+    }
+
+    // tag name, then the quoted value with backslash escapes, then anything up to the closing bracket
+    private void readTag(PgnGame game) throws IOException {
+        StringBuilder name = game.addTagName();
+        int c = skipSpaces();
+        while (c >= 0 && c > ' ' && c != '"' && c != ']') {
+            name.append((char) read());
+            c = peek();
+        }
+        c = skipSpaces();
+        if (c == '"') {
+            read();
+            StringBuilder value = game.tagValue();
+            while ((c = read()) >= 0 && c != '"' && c != '\n') {
+                if (c == '\\') {
+                    c = read();
+                }
+                // tags are ASCII or UTF-8; a UTF-8 sequence is kept as its bytes, one char each
+                value.append((char) c);
+            }
+        }
+        skipUntil(']');
+        game.endTag();
+    }
+
+    // a token is a run of anything but spaces and the characters that start or end comments and variations
+    private int readToken(int first) throws IOException {
+        int length = 0;
+        int c = first;
+        while (true) {
+            if (length < MAX_TOKEN) {
+                token[length] = (byte) c;
+            }
+            length++;
+            c = peek();
+            if (c < 0 || c <= ' ' || c == '{' || c == '}' || c == '(' || c == ')' || c == ';' || c == '[' || c == ']') {
+                return length;
+            }
+            read();
+        }
+    }
+
+    private String result(int length) {
+        if (length == 1 && token[0] == '*') {
+            return PgnGame.UNKNOWN;
+        }
+        if (length == 3 && token[1] == '-') {
+            if (token[0] == '1' && token[2] == '0') {
+                return PgnGame.WHITE_WINS;
+            }
+            if (token[0] == '0' && token[2] == '1') {
+                return PgnGame.BLACK_WINS;
+            }
+        }
+        if (length == 7 && token[0] == '1' && token[1] == '/' && token[2] == '2' && token[3] == '-'
+                && token[4] == '1' && token[5] == '/' && token[6] == '2') {
+            return PgnGame.DRAW;
+        }
+        return null;
+    }
+
+    // index of the move after a "12." or "12..." prefix; the whole token when it is only a move number
+    private int skipMoveNumber(int length) {
+        int i = 0;
+        while (i < length && i < MAX_TOKEN && token[i] >= '0' && token[i] <= '9') {
+            i++;
+        }
+        if (i == 0 || i >= length || i >= MAX_TOKEN || token[i] != '.') {
+            return 0;
+        }
+        while (i < length && i < MAX_TOKEN && token[i] == '.') {
+            i++;
+        }
+        return i;
+    }
+
+    // the "e.p." some writers put after an en passant capture as a token of its own
+    private boolean isEnPassantMark(int start, int length) {
+        return length - start == 4 && length <= MAX_TOKEN && token[start] == 'e' && token[start + 1] == '.'
+                && token[start + 2] == 'p' && token[start + 3] == '.';
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 1;
+        int c;
+        while (depth > 0 && (c = read()) >= 0) {
+            if (c == '(') {
+                depth++;
+            }
+            else if (c == ')') {
+                depth--;
+            }
+            else if (c == '{') {
+                skipUntil('}');
+            }
+            else if (c == ';') {
+                skipUntil('\n');
+            }
+        }
+    }
+
+    private void skipToken() throws IOException {
+        int c;
+        while ((c = peek()) > ' ' && c != '{' && c != '(' && c != ')' && c != '[') {
+            read();
+        }
+    }
+
+    private void skipUntil(int end) throws IOException {
+        int c;
+        while ((c = read()) >= 0 && c != end) {
+        }
+    }
+
+    // next character that is not a space, left unread
+    private int skipSpaces() throws IOException {
+        int c;
+        while ((c = peek()) >= 0 && c <= ' ') {
+            read();
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get(buffer.position()) & 0xFF;
+    }
+
+    private int read() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        if (channel == null) {
+            return false;
+        }
+        buffer.clear();
+        int n;
+        do {
+            n = channel.read(buffer);
+        } while (n == 0);
+        buffer.flip();
+        return n > 0;
+    }
+}
@@ -0,0 +1,177 @@
+package chess.pgn;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import chess.Move;
+
+// Validates a PGN file on several threads. A reader thread cuts the input into chunks at game boundaries,
+// the workers replay the chunks, and the caller gets the reports in file order. The queue of pending chunks
+// is bounded, so a slow consumer stalls the reader instead of filling the heap.
+public class PgnValidator {
+
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    // each worker thread keeps its own game object and move buffer
+    private static final ThreadLocal<PgnGame> GAME = ThreadLocal.withInitial(PgnGame::new);
+    private static final ThreadLocal<int[]> MOVES = ThreadLocal.withInitial(() -> new int[Move.MAX_MOVES]);
+
+    private final int threads;
+    private final int chunkSize;
+
+    public PgnValidator(int threads) {
+        this(threads, CHUNK_SIZE);
+    }
+
+    public PgnValidator(int threads, int chunkSize) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Numero de threads deve ser ao menos 1");
+        }
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    public long validate(Path path, Consumer<? super GameReport> action) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return validate(channel, action);
+        }
+    }
+
+    // calls the action on the calling thread for every game, in the order of the input, and returns the game count
+    public long validate(ReadableByteChannel channel, Consumer<? super GameReport> action) throws IOException {
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "pgn-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        BlockingQueue<Future<List<GameReport>>> pending = new ArrayBlockingQueue<>(threads * 2);
+        Thread reader = new Thread(() -> split(channel, workers, pending), "pgn-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        long games = 0;
+        try {
+            while (true) {
+                List<GameReport> reports = pending.take().get();
+                if (reports == null) {
+                    return games;
+                }
+                for (GameReport report : reports) {
+                    games++;
+                    report.setNumber(games);
+                    action.accept(report);
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Validacao interrompida", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        finally {
+            reader.interrupt();
+            workers.shutdownNow();
+        }
+    }
+
+    // runs on the reader thread; a null result marks the end of the input
+    private void split(ReadableByteChannel channel, ExecutorService workers, BlockingQueue<Future<List<GameReport>>> pending) {
+        CompletableFuture<List<GameReport>> last = CompletableFuture.completedFuture(null);
+        try {
+            try {
+                read(channel, workers, pending);
+            }
+            catch (IOException e) {
+                last = new CompletableFuture<>();
+                last.completeExceptionally(e);
+            }
+            pending.put(last);
+        }
+        catch (InterruptedException e) {
+            // the consumer gave up
+        }
+    }
+
+    private void read(ReadableByteChannel channel, ExecutorService workers, BlockingQueue<Future<List<GameReport>>> pending)
+            throws IOException, InterruptedException {
+        byte[] block = new byte[chunkSize];
+        int filled = 0;
+        boolean end = false;
+        while (!end) {
+            while (filled < block.length) {
+                int n = channel.read(ByteBuffer.wrap(block, filled, block.length - filled));
+                if (n < 0) {
+                    end = true;
+                    break;
+                }
+                filled += n;
+            }
+            int cut = end ? filled : lastGameStart(block, filled);
+            if (cut <= 0) {
+                // a single game longer than the block
+                block = Arrays.copyOf(block, block.length * 2);
+                continue;
+            }
+            byte[] chunk = block;
+            int length = cut;
+            pending.put(workers.submit(() -> replay(chunk, length)));
+
+            block = new byte[Math.max(chunkSize, filled - cut)];
+            System.arraycopy(chunk, cut, block, 0, filled - cut);
+            filled -= cut;
+        }
+    }
+
+    // offset of the last line starting with '[' that follows move text: the first tag of the last game in the block
+    static int lastGameStart(byte[] block, int length) {
+        for (int i = length - 1; i > 0; i--) {
+            if (block[i] == '[' && block[i - 1] == '\n' && previousLineIsMoveText(block, i - 1)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean previousLineIsMoveText(byte[] block, int newline) {
+        int i = newline - 1;
+        // blank lines between the move text and the tags do not count
+        while (i >= 0 && (block[i] == '\n' || block[i] == '\r' || block[i] == ' ' || block[i] == '\t')) {
+            i--;
+        }
+        while (i >= 0 && block[i] != '\n') {
+            i--;
+        }
+        return i + 1 < newline && block[i + 1] != '[';
+    }
+
+    private static List<GameReport> replay(byte[] chunk, int length) throws IOException {
+        PgnReader reader = new PgnReader(ByteBuffer.wrap(chunk, 0, length));
+        PgnGame game = GAME.get();
+        int[] moves = MOVES.get();
+        List<GameReport> reports = new ArrayList<>();
+        while (reader.next(game)) {
+            reports.add(new GameReport(game, game.getNumber(), moves));
+        }
+        return reports;
+    }
+}
@@ -0,0 +1,125 @@
+package chess.pgn;
+
+import chess.BitBoard;
+import chess.Move;
+
+// Standard algebraic notation resolved against the legal move list, straight from the bytes of a token.
+public final class San {
+
+    private San() {
+    }
+
+    // the one legal move the token names, or Move.NONE when it names none or more than one;
+    // check marks, annotations, an "e.p." suffix and long algebraic ("e2e4", "Ng1-f3") are accepted too
+    public static int parse(BitBoard board, byte[] token, int length, int[] legal) {
+        while (length > 0 && (token[length - 1] == '+' || token[length - 1] == '#' || token[length - 1] == '!' || token[length - 1] == '?')) {
+            length--;
+        }
+        if (length > 4 && token[length - 4] == 'e' && token[length - 3] == '.' && token[length - 2] == 'p' && token[length - 1] == '.') {
+            length -= 4;
+        }
+        if (length < 2) {
+            return Move.NONE;
+        }
+        int count = board.generateLegalMoves(legal);
+
+        if (token[0] == 'O' || token[0] == '0') {
+            boolean kingside = isCastling(token, length, 3);
+            if (!kingside && !isCastling(token, length, 5)) {
+                return Move.NONE;
+            }
+            for (int i = 0; i < count; i++) {
+                int move = legal[i];
+                if ((Move.flags(move) & Move.CASTLING) != 0 && (Move.to(move) > Move.from(move)) == kingside) {
+                    return move;
+                }
+            }
+            return Move.NONE;
+        }
+
+        int promotion = BitBoard.PAWN;
+        if (length > 2 && token[length - 2] == '=') {
+            promotion = pieceType(token[length - 1]);
+            length -= 2;
+        }
+        else if (length > 2 && pieceType(token[length - 1]) != BitBoard.NONE && token[length - 2] >= '1' && token[length - 2] <= '8') {
+            promotion = pieceType(token[length - 1]);
+            length--;
+        }
+        if (promotion == BitBoard.NONE || promotion == BitBoard.KING || length < 2) {
+            return Move.NONE;
+        }
+
+        int toFile = token[length - 2] - 'a';
+        int toRank = token[length - 1] - '1';
+        if (toFile < 0 || toFile > 7 || toRank < 0 || toRank > 7) {
+            return Move.NONE;
+        }
+        int to = toRank * 8 + toFile;
+
+        int start = 0;
+        int type = pieceType(token[0]);
+        if (type == BitBoard.NONE) {
+            type = BitBoard.PAWN;
+        }
+        else {
+            start = 1;
+        }
+        // whatever stands between the piece letter and the target square: origin file, rank, 'x' or '-'
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = start; i < length - 2; i++) {
+            byte c = token[i];
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            }
+            else if (c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            }
+            else if (c != 'x' && c != '-' && c != ':') {
+                return Move.NONE;
+            }
+        }
+
+        int found = Move.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = legal[i];
+            int from = Move.from(move);
+            if (Move.to(move) == to && Move.promotion(move) == promotion
+                    && BitBoard.typeOf(board.pieceAt(from)) == type
+                    && (fromFile < 0 || (from & 7) == fromFile)
+                    && (fromRank < 0 || (from >>> 3) == fromRank)) {
+                if (found != Move.NONE) {
+                    return Move.NONE;
+                }
+                found = move;
+            }
+        }
+        return found;
+    }
+
+    // "O-O" or "O-O-O", with letters or zeros
+    private static boolean isCastling(byte[] token, int length, int expected) {
+        if (length != expected) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            byte c = token[i];
+            if ((i % 2 == 0) ? (c != 'O' && c != '0') : c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int pieceType(byte c) {
+        switch (c) {
+        case 'N': return BitBoard.KNIGHT;
+        case 'B': return BitBoard.BISHOP;
+        case 'R': return BitBoard.ROOK;
+        case 'Q': return BitBoard.QUEEN;
+        case 'K': return BitBoard.KING;
+        default: return BitBoard.NONE;
+        }
+    }
+}
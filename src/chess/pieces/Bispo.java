@@ -1,7 +1,8 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.Attacks;
+import chess.BitBoard;
 import chess.ChessPiece;
 import chess.Color;
 
@@ -12,61 +13,16 @@ public class Bispo extends ChessPiece {
 	}
 
 	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-
-		Position p = new Position(0, 0);
-
-		// NW
-		p.setValues(position.getRow() - 1, position.getColumn()-1);
-
-		while (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setValues(p.getRow()-1,p.getColumn()-1);
-		}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-
-		}
-		// NE
-		p.setValues(position.getRow()-1, position.getColumn()+1);
-
-		while (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setValues(p.getRow()-1, p.getColumn()+1);
-		}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-
-		}
-
-		// SE
-		p.setValues(position.getRow() +1, position.getColumn() + 1);
-
-		while (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setValues(p.getRow()+1, p.getColumn()+1);
-		}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-
-		}
-
-		// SW
-		p.setValues(position.getRow() + 1, position.getColumn()-1);
-
-		while (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setValues(p.getRow()+1, p.getColumn()-1);
-		}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-
-		}
-
-		return mat;
+	public long possibleMovesMask() {
+		BitBoard bitBoard = getBitBoard();
+		return Attacks.bishop(getSquare(), bitBoard.occupied()) & ~bitBoard.occupancy(getColorIndex());
 	}
 	
+	@Override
+	protected int getType() {
+		return BitBoard.BISHOP;
+	}
+
 	@Override
 	public String toString() {
 		return "B";
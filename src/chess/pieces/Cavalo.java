@@ -1,7 +1,8 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.Attacks;
+import chess.BitBoard;
 import chess.ChessPiece;
 import chess.Color;
 
@@ -9,65 +10,19 @@ public class Cavalo extends ChessPiece {
 
 	public Cavalo(Board board, Color color) {
 		super(board, color);
-		
+
 	}
 
 	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-
-		Position p = new Position(0, 0);
-
-		
-		p.setValues(position.getRow() - 1, position.getColumn()-2);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-
-		p.setValues(position.getRow() -2, position.getColumn()-1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		p.setValues(position.getRow()-2, position.getColumn() +1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		p.setValues(position.getRow()-1, position.getColumn()+2);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		p.setValues(position.getRow() +1, position.getColumn() +2);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		p.setValues(position.getRow() +2, position.getColumn() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		p.setValues(position.getRow() +2, position.getColumn() -1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		p.setValues(position.getRow() + 1, position.getColumn() -2);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		return mat;
+	public long possibleMovesMask() {
+		return Attacks.knight(getSquare()) & ~getBitBoard().occupancy(getColorIndex());
 	}
-	
-	private boolean canMove(Position position) {
-		ChessPiece piece = (ChessPiece) getBoard().piece(position);
-		return piece == null || piece.getColor() != getColor();
+
+	@Override
+	protected int getType() {
+		return BitBoard.KNIGHT;
 	}
-	
+
 	@Override
 	public String toString() {
 		return "C";
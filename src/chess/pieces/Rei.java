@@ -1,107 +1,50 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
-import chess.ChessMatch;
+import chess.Attacks;
+import chess.BitBoard;
 import chess.ChessPiece;
 import chess.Color;
 
 public class Rei extends ChessPiece {
-	
-	private ChessMatch chessMatch; 
 
-	public Rei(Board board, Color color, ChessMatch chessMatch) {
+	public Rei(Board board, Color color) {
 		super(board, color);
-		this.chessMatch = chessMatch;
 	}
 
 	@Override
-	public String toString() {
-		return "K";
-	}
-	
-	private boolean testRookCastling(Position position) {
-		ChessPiece p = (ChessPiece)getBoard().piece(position); 
-		
-		return p != null && p instanceof Torre && p.getColor() == getColor() && p.getMoveCount()==0; 
+	protected int getType() {
+		return BitBoard.KING;
 	}
 
-	private boolean canMove(Position position) {
-		ChessPiece piece = (ChessPiece) getBoard().piece(position);
-		return piece == null || piece.getColor() != getColor();
+	@Override
+	public String toString() {
+		return "K";
 	}
 	
 	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-
-		Position p = new Position(0, 0);
-
-		// above
-		p.setValues(position.getRow() - 1, position.getColumn());
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// below
-		p.setValues(position.getRow() + 1, position.getColumn());
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		// left
-		p.setValues(position.getRow(), position.getColumn() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		// right
-		p.setValues(position.getRow(), position.getColumn() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		// Nw
-		p.setValues(position.getRow() - 1, position.getColumn() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		// ne
-		p.setValues(position.getRow() - 1, position.getColumn() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		// sw
-		p.setValues(position.getRow() + 1, position.getColumn() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		// se
-		p.setValues(position.getRow() + 1, position.getColumn() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		//#special move castling
-		if (getMoveCount() == 0 && !chessMatch.getCheck()) {
+	public long possibleMovesMask() {
+		BitBoard bitBoard = getBitBoard();
+		int square = getSquare();
+		long targets = Attacks.king(square) & ~bitBoard.occupancy(getColorIndex());
+
+		//#special move castling, never out of or through check
+		int opponent = 1 - getColorIndex();
+		int rights = bitBoard.getCastlingRights() >>> (2 * getColorIndex());
+		if ((rights & 3) != 0 && !bitBoard.isSquareAttacked(square, opponent)) {
 			//Castling kingside rook
-			Position postT1 = new Position(position.getRow(), position.getColumn()+3); 
-			if(testRookCastling(postT1)) {
-				Position p1 = new Position(position.getRow(), position.getColumn()+1);
-				Position p2 = new Position(position.getRow(), position.getColumn()+2);
-				if (getBoard().piece(p1) == null && getBoard().piece(p2) == null) {
-					mat[position.getRow()][position.getColumn()+2] = true;
-				}
+			if ((rights & 1) != 0 && (bitBoard.occupied() & (3L << (square + 1))) == 0
+					&& !bitBoard.isSquareAttacked(square + 1, opponent)) {
+				targets |= 1L << (square + 2);
 			}
 			//Castling queenside rook
-			Position postT2 = new Position(position.getRow(), position.getColumn()-4); 
-			if(testRookCastling(postT2)) {
-				Position p1 = new Position(position.getRow(), position.getColumn()-1);
-				Position p2 = new Position(position.getRow(), position.getColumn()-2);
-				Position p3 = new Position(position.getRow(), position.getColumn()-3);
-				if (getBoard().piece(p1) == null && getBoard().piece(p2) == null && getBoard().piece(p3) == null) {
-					mat[position.getRow()][position.getColumn()-2] = true;
-				}
+			if ((rights & 2) != 0 && (bitBoard.occupied() & (7L << (square - 3))) == 0
+					&& !bitBoard.isSquareAttacked(square - 1, opponent)) {
+				targets |= 1L << (square - 2);
 			}
 		}
 
-		return mat;
+		return targets;
 	}
 
 }
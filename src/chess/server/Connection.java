@@ -0,0 +1,151 @@
+package chess.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// One client. Its reactor reads the lines, runs the commands and writes the answers; notifications from other
+// connections are appended to the output buffer, under its lock, and the reactor is asked to flush them.
+final class Connection {
+
+    // a client that does not read its answers is not read from until they drain
+    private static final int OUTPUT_LIMIT = 1 << 16;
+
+    private final GameServer server;
+    private final Reactor reactor;
+    private final SocketChannel channel;
+    private final SelectionKey key;
+
+    // several pipelined commands fit in one read; a single line may not fill it
+    private final ByteBuffer in = ByteBuffer.allocate(8192);
+    private ByteBuffer out = ByteBuffer.allocate(4096);
+    private boolean flushScheduled;
+    private boolean closed;
+
+    // the matches this client plays in, removed when they end
+    final Set<Game> games = ConcurrentHashMap.newKeySet();
+
+    Connection(GameServer server, Reactor reactor, SocketChannel channel, SelectionKey key) {
+        this.server = server;
+        this.reactor = reactor;
+        this.channel = channel;
+        this.key = key;
+        server.connectionOpened();
+    }
+
+    // reactor thread
+    void read() {
+        int n;
+        try {
+            n = channel.read(in);
+        }
+        catch (IOException e) {
+            n = -1;
+        }
+        if (n < 0) {
+            close();
+            return;
+        }
+        in.flip();
+        int start = in.position();
+        for (int i = start; i < in.limit(); i++) {
+            if (in.get(i) == '\n') {
+                int end = (i > start && in.get(i - 1) == '\r') ? i - 1 : i;
+                String line = new String(in.array(), start, end - start, StandardCharsets.US_ASCII);
+                send(server.handle(this, line));
+                if (closed) {
+                    return;
+                }
+                start = i + 1;
+            }
+        }
+        in.position(start);
+        in.compact();
+        if (!in.hasRemaining()) {
+            send("ERR linha longa demais");
+            close();
+            return;
+        }
+        flush();
+    }
+
+    // any thread; null sends nothing
+    void send(String line) {
+        if (line == null) {
+            return;
+        }
+        boolean schedule;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (out.remaining() < line.length() + 1) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + line.length() + 1));
+                out.flip();
+                bigger.put(out);
+                out = bigger;
+            }
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                // the protocol is ASCII; accents in the engine's messages are replaced
+                out.put((byte) ((c < 128) ? c : '?'));
+            }
+            out.put((byte) '\n');
+            schedule = !flushScheduled;
+            flushScheduled = true;
+        }
+        // the reactor may be serving another of its connections, or be another thread's; either way it flushes later
+        if (schedule) {
+            if (reactor.inReactor()) {
+                reactor.flushLater(this);
+            }
+            else {
+                reactor.execute(this::flush);
+            }
+        }
+    }
+
+    // reactor thread: writes what the socket takes and waits for OP_WRITE for the rest
+    void flush() {
+        synchronized (this) {
+            flushScheduled = false;
+            if (closed) {
+                return;
+            }
+            out.flip();
+            try {
+                if (out.hasRemaining()) {
+                    channel.write(out);
+                }
+                out.compact();
+                int pending = out.position();
+                key.interestOps(((pending > 0) ? SelectionKey.OP_WRITE : 0) | ((pending < OUTPUT_LIMIT) ? SelectionKey.OP_READ : 0));
+                return;
+            }
+            catch (IOException e) {
+                out.clear();
+            }
+        }
+        // outside the lock: leaving the games takes their locks, which are always taken before this one
+        close();
+    }
+
+    void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        key.cancel();
+        Reactor.closeQuietly(channel);
+        for (Game game : games) {
+            game.leave(this);
+        }
+        server.connectionClosed();
+    }
+}
@@ -0,0 +1,120 @@
+package chess.server;
+
+import boardgame.BoardExeception;
+import chess.BitBoard;
+import chess.ChessMatch;
+import chess.ChessPosition;
+import chess.Color;
+
+// A match and its two players. Every command on it runs under its own lock, so different matches never wait
+// for each other, whichever reactors their players are on.
+final class Game {
+
+    final long id;
+
+    private final GameServer server;
+    private final ChessMatch match = new ChessMatch();
+    private final Connection white;
+    private Connection black;
+    private boolean over;
+
+    Game(GameServer server, long id, Connection white) {
+        this.server = server;
+        this.id = id;
+        this.white = white;
+        white.games.add(this);
+    }
+
+    // the creator may join its own match and play both sides
+    synchronized String join(Connection player) {
+        if (over) {
+            return "ERR partida encerrada " + id;
+        }
+        if (black != null) {
+            return "ERR partida " + id + " ja tem dois jogadores";
+        }
+        black = player;
+        player.games.add(this);
+        if (player != white) {
+            white.send("JOINED " + id);
+        }
+        return "OK " + id + " BLACK";
+    }
+
+    // move in coordinates, e.g. e2e4 or e7e8n
+    synchronized String move(Connection player, String text) {
+        if (over) {
+            return "ERR partida encerrada " + id;
+        }
+        if (black == null) {
+            return "ERR partida " + id + " aguardando adversario";
+        }
+        if (player != ((match.getCurrentPlayer() == Color.BRANCO) ? white : black)) {
+            return "ERR partida " + id + " nao e sua vez";
+        }
+        // four characters, or five with the promotion letter
+        int promotion = (text.length() == 5) ? promotion(text.charAt(4)) : (text.length() == 4) ? BitBoard.QUEEN : BitBoard.NONE;
+        if (promotion == BitBoard.NONE) {
+            return "ERR lance invalido: " + text;
+        }
+        try {
+            match.performChessMove(new ChessPosition(text.charAt(0), text.charAt(1) - '0'),
+                    new ChessPosition(text.charAt(2), text.charAt(3) - '0'), promotion);
+        }
+        catch (BoardExeception e) {
+            return "ERR " + e.getMessage();
+        }
+        server.moveMade();
+
+        String status = match.getCheckMate() ? " CHECKMATE" : match.getDraw() ? " DRAW" : match.getCheck() ? " CHECK" : "";
+        Connection opponent = (player == white) ? black : white;
+        if (opponent != player) {
+            opponent.send("MOVED " + id + " " + text + status);
+        }
+        if (match.getCheckMate() || match.getDraw()) {
+            end();
+        }
+        return "OK " + id + status;
+    }
+
+    // reads the published snapshot, so spectators never wait for the players' moves
+    String fen() {
+        return "OK " + id + " " + match.getSnapshot().toFen();
+    }
+
+    // the player disconnected; the match ends and the other player is told
+    synchronized void leave(Connection player) {
+        if (over) {
+            return;
+        }
+        Connection opponent = (player == white) ? black : white;
+        if (opponent != null && opponent != player) {
+            opponent.send("GONE " + id);
+        }
+        end();
+    }
+
+    private void end() {
+        over = true;
+        server.remove(this);
+        white.games.remove(this);
+        if (black != null) {
+            black.games.remove(this);
+        }
+    }
+
+    private static int promotion(char letter) {
+        switch (letter) {
+        case 'q':
+            return BitBoard.QUEEN;
+        case 'r':
+            return BitBoard.ROOK;
+        case 'b':
+            return BitBoard.BISHOP;
+        case 'n':
+            return BitBoard.KNIGHT;
+        default:
+            return BitBoard.NONE;
+        }
+    }
+}
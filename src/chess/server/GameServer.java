@@ -0,0 +1,169 @@
+package chess.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// TCP server hosting many matches at once. An acceptor thread hands each connection to one of several reactors,
+// selector threads that read, run and answer its commands without blocking. There is no global lock: matches
+// are found in a concurrent map, each one serializes its own moves and FEN reads its last published snapshot.
+//
+// Protocol, one ASCII line per command and per answer:
+//   NEW               -> OK <id> WHITE          creates a match, the creator plays white
+//   JOIN <id>         -> OK <id> BLACK          the creator gets JOINED <id>; joining your own match plays both sides
+//   MOVE <id> <move>  -> OK <id> [CHECK|CHECKMATE|DRAW]
+//                        the opponent gets MOVED <id> <move> [...]; moves are like e2e4 or e7e8n
+//   FEN <id>          -> OK <id> <fen>
+//   PING              -> PONG
+//   QUIT                 closes the connection; its matches end and the opponents get GONE <id>
+// Errors are answered with ERR <message>. Answers come in the order of the commands, so clients may pipeline.
+// A match is dropped when it ends.
+public class GameServer implements Closeable {
+
+    private final ServerSocketChannel acceptor;
+    private final Reactor[] reactors;
+    private final Thread acceptThread;
+
+    private final Map<Long, Game> games = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final LongAdder moves = new LongAdder();
+
+    // port 0 picks a free one
+    public GameServer(int port, int reactorCount) throws IOException {
+        if (reactorCount < 1) {
+            throw new IllegalArgumentException("Numero de reactors deve ser ao menos 1");
+        }
+        acceptor = ServerSocketChannel.open();
+        acceptor.bind(new InetSocketAddress(port), 1024);
+        reactors = new Reactor[reactorCount];
+        for (int i = 0; i < reactorCount; i++) {
+            reactors[i] = new Reactor(this, i);
+        }
+        acceptThread = new Thread(this::accept, "acceptor");
+        acceptThread.setDaemon(true);
+    }
+
+    public int getPort() {
+        return acceptor.socket().getLocalPort();
+    }
+
+    public void start() {
+        for (Reactor reactor : reactors) {
+            reactor.start();
+        }
+        acceptThread.start();
+    }
+
+    public int getConnections() {
+        return connections.get();
+    }
+
+    public int getGames() {
+        return games.size();
+    }
+
+    // moves played since the start
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        acceptor.close();
+        for (Reactor reactor : reactors) {
+            reactor.close();
+        }
+    }
+
+    private void accept() {
+        int next = 0;
+        try {
+            while (true) {
+                SocketChannel channel = acceptor.accept();
+                reactors[next].register(channel);
+                next = (next + 1) % reactors.length;
+            }
+        }
+        catch (IOException e) {
+            // the server was closed
+        }
+    }
+
+    // reactor thread of the connection; returns the answer, or null when there is none
+    String handle(Connection connection, String line) {
+        String[] words = line.trim().split(" +");
+        try {
+            switch (words[0].toUpperCase()) {
+            case "NEW":
+                Game game = new Game(this, nextId.incrementAndGet(), connection);
+                games.put(game.id, game);
+                return "OK " + game.id + " WHITE";
+            case "JOIN":
+                return find(words, 2).join(connection);
+            case "MOVE":
+                return find(words, 3).move(connection, words[2]);
+            case "FEN":
+                return find(words, 2).fen();
+            case "PING":
+                return "PONG";
+            case "QUIT":
+                // the answers to the commands before it still go out
+                connection.flush();
+                connection.close();
+                return null;
+            case "":
+                return null;
+            default:
+                return "ERR comando desconhecido: " + words[0];
+            }
+        }
+        // a bad command costs its answer only, never the reactor that serves every other connection on it
+        catch (RuntimeException e) {
+            return "ERR " + ((e.getMessage() != null) ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    private Game find(String[] words, int length) {
+        if (words.length != length) {
+            throw new IllegalArgumentException("uso: " + usage(words[0]));
+        }
+        Game game = games.get(Long.parseLong(words[1]));
+        if (game == null) {
+            throw new IllegalArgumentException("partida inexistente " + words[1]);
+        }
+        return game;
+    }
+
+    private static String usage(String command) {
+        switch (command.toUpperCase()) {
+        case "MOVE":
+            return "MOVE <id> <lance>";
+        default:
+            return command.toUpperCase() + " <id>";
+        }
+    }
+
+    void remove(Game game) {
+        games.remove(game.id);
+    }
+
+    void moveMade() {
+        moves.increment();
+    }
+
+    void connectionOpened() {
+        connections.incrementAndGet();
+    }
+
+    void connectionClosed() {
+        connections.decrementAndGet();
+    }
+}
@@ -0,0 +1,132 @@
+package chess.server;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// One selector thread. It owns the connections registered with it: their reads, their command handling and
+// their writes all run here. Other threads reach it only through the task queue.
+final class Reactor implements Runnable {
+
+    private final GameServer server;
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    // connections this thread wrote to while serving another one, flushed at the end of the pass
+    private final List<Connection> pending = new ArrayList<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    Reactor(GameServer server, int number) throws IOException {
+        this.server = server;
+        selector = Selector.open();
+        thread = new Thread(this, "reactor-" + number);
+        thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    boolean inReactor() {
+        return Thread.currentThread() == thread;
+    }
+
+    // runs the task on the reactor thread
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    // reactor thread only
+    void flushLater(Connection connection) {
+        pending.add(connection);
+    }
+
+    void register(SocketChannel channel) {
+        execute(() -> {
+            try {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new Connection(server, this, channel, key));
+            }
+            catch (IOException e) {
+                closeQuietly(channel);
+            }
+        });
+    }
+
+    // the reactor closes its connections and its selector on the way out
+    void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Connection connection = (Connection) key.attachment();
+                    if (!key.isValid() || connection == null) {
+                        continue;
+                    }
+                    try {
+                        if (key.isReadable()) {
+                            connection.read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.flush();
+                        }
+                    }
+                    catch (RuntimeException e) {
+                        // only this connection is lost; the thread goes on serving the others
+                        connection.close();
+                    }
+                }
+                // a flush that closes its connection can tell an opponent here, so the list may grow meanwhile
+                for (int i = 0; i < pending.size(); i++) {
+                    pending.get(i).flush();
+                }
+                pending.clear();
+            }
+        }
+        catch (IOException e) {
+            // the selector failed, nothing this thread can serve any more
+        }
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() != null) {
+                ((Connection) key.attachment()).close();
+            }
+        }
+        try {
+            selector.close();
+        }
+        catch (IOException e) {
+            // nothing left to release
+        }
+    }
+
+    static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        }
+        catch (IOException e) {
+            // already gone
+        }
+    }
+}
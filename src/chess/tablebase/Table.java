@@ -0,0 +1,235 @@
+package chess.tablebase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import chess.BitBoard;
+import chess.ChessException;
+
+// One material set, e.g. KRK: how positions map to indexes and, once generated, the value of each of them.
+// A value is 0 for a draw and otherwise the distance to mate in plies plus one, from the side to move's view:
+// an odd distance means the side to move mates, an even one that it gets mated.
+//
+// Index: side to move, white king square, then every other piece's square, six bits each. Boards are mirrored
+// so the white king is on files a-d, and without pawns also on ranks 1-4 below the long diagonal (10 squares).
+//
+// File layout: header (magic "CTB1", version, bits per value, largest value, entry count (long), material in
+// ASCII padded to 8 bytes), then the values packed little-endian, bits per value each, plus 8 bytes of padding.
+final class Table {
+
+    static final int MAGIC = ('C' << 24) | ('T' << 16) | ('B' << 8) | '1';
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+
+    static final String EXTENSION = ".ctb";
+
+    // piece letters in the order each side's pieces are listed
+    private static final String LETTERS = "QRBNP";
+    private static final int[] LETTER_TYPES = { BitBoard.QUEEN, BitBoard.ROOK, BitBoard.BISHOP, BitBoard.KNIGHT, BitBoard.PAWN };
+    private static final int[] STRENGTH = { 1, 3, 3, 5, 9, 0 };
+
+    // white king squares a1-d1, b2-d2, c3-d3 and d4, and their index
+    private static final int[] TRIANGLE = { 0, 1, 2, 3, 9, 10, 11, 18, 19, 27 };
+    private static final int[] TRIANGLE_INDEX = new int[64];
+
+    static {
+        for (int i = 0; i < TRIANGLE.length; i++) {
+            TRIANGLE_INDEX[TRIANGLE[i]] = i;
+        }
+    }
+
+    final String signature;
+    final int size;
+    final int[] colors;
+    final int[] types;
+    final boolean pawns;
+    final int whiteMaterial;
+    final int blackMaterial;
+    final int entries;
+
+    private final int kingSquares;
+
+    // while generating
+    private final byte[] values;
+
+    // once written
+    private final ByteBuffer data;
+    private final int bits;
+    private final int maxValue;
+
+    // a table still being generated, with one byte per position
+    Table(String signature) {
+        this(signature, null, 0, 0);
+    }
+
+    private Table(String signature, ByteBuffer data, int bits, int maxValue) {
+        this.signature = signature;
+        size = signature.length();
+        colors = new int[size];
+        types = new int[size];
+        int color = BitBoard.BLACK;
+        boolean hasPawns = false;
+        for (int i = 0; i < size; i++) {
+            char c = signature.charAt(i);
+            if (c == 'K') {
+                color = (i == 0) ? BitBoard.WHITE : BitBoard.BLACK;
+                types[i] = BitBoard.KING;
+            }
+            else {
+                types[i] = LETTER_TYPES[LETTERS.indexOf(c)];
+                hasPawns |= types[i] == BitBoard.PAWN;
+            }
+            colors[i] = color;
+        }
+        pawns = hasPawns;
+        whiteMaterial = material(colors, types, BitBoard.WHITE);
+        blackMaterial = material(colors, types, BitBoard.BLACK);
+        kingSquares = pawns ? 32 : 10;
+        long count = 2L * kingSquares << (6 * (size - 1));
+        if (count > Integer.MAX_VALUE) {
+            throw new ChessException("Tabela grande demais: " + signature);
+        }
+        entries = (int) count;
+
+        this.data = data;
+        this.bits = bits;
+        this.maxValue = maxValue;
+        values = (data == null) ? new byte[entries] : null;
+    }
+
+    static Table map(Path path) throws IOException {
+        ByteBuffer data;
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (file.size() > Integer.MAX_VALUE) {
+                throw new IOException("Tabela maior que 2 GB: " + path);
+            }
+            data = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+        }
+        if (data.capacity() < HEADER_SIZE || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new ChessException("Tabela invalida: " + path);
+        }
+        StringBuilder signature = new StringBuilder();
+        for (int i = 24; i < HEADER_SIZE && data.get(i) != 0; i++) {
+            signature.append((char) data.get(i));
+        }
+        int bits = data.getInt(8);
+        long entries = data.getLong(16);
+        Table table = new Table(signature.toString(), data.duplicate().order(ByteOrder.LITTLE_ENDIAN), bits, data.getInt(12));
+        long bytes = HEADER_SIZE + ((long) table.entries * bits + 7) / 8 + 8;
+        if (entries != table.entries || bits < 1 || bits > 8 || data.capacity() < bytes) {
+            throw new ChessException("Tabela incompleta: " + path);
+        }
+        return table;
+    }
+
+    // the canonical name of a material set: stronger side first, each side's pieces in QRBNP order
+    static String normalize(String signature) {
+        String upper = signature.toUpperCase();
+        int second = upper.indexOf('K', 1);
+        if (!upper.startsWith("K") || second < 0 || upper.indexOf('K', second + 1) >= 0) {
+            throw new ChessException("Material invalido, use algo como KQK ou KRPKR: " + signature);
+        }
+        String white = sort(upper.substring(1, second));
+        String black = sort(upper.substring(second + 1));
+        if (2 + white.length() + black.length() > Tablebase.MAX_PIECES) {
+            throw new ChessException("No maximo " + Tablebase.MAX_PIECES + " pecas: " + signature);
+        }
+        return (strength(black) > strength(white) || (strength(black) == strength(white) && black.compareTo(white) < 0))
+                ? "K" + black + "K" + white : "K" + white + "K" + black;
+    }
+
+    private static String sort(String pieces) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < LETTERS.length(); i++) {
+            for (int j = 0; j < pieces.length(); j++) {
+                if (pieces.charAt(j) == LETTERS.charAt(i)) {
+                    sb.append(LETTERS.charAt(i));
+                }
+                else if (LETTERS.indexOf(pieces.charAt(j)) < 0) {
+                    throw new ChessException("Peca invalida no material: " + pieces.charAt(j));
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int strength(String pieces) {
+        int sum = 0;
+        for (int i = 0; i < pieces.length(); i++) {
+            sum += STRENGTH[LETTER_TYPES[LETTERS.indexOf(pieces.charAt(i))]];
+        }
+        return sum;
+    }
+
+    // the counts of one side's pieces other than the king, two bits per type
+    static int material(int[] colors, int[] types, int color) {
+        int code = 0;
+        for (int i = 0; i < colors.length; i++) {
+            if (colors[i] == color && types[i] != BitBoard.KING) {
+                code += 1 << (2 * types[i]);
+            }
+        }
+        return code;
+    }
+
+    static int material(BitBoard board, int color) {
+        int code = 0;
+        for (int type = BitBoard.PAWN; type < BitBoard.KING; type++) {
+            code += board.pieceCount(color, type) << (2 * type);
+        }
+        return code;
+    }
+
+    // squares are in the order of the signature
+    int index(int[] squares, int side) {
+        int king = squares[0];
+        int mirror = ((king & 7) > 3) ? 7 : 0;
+        if (!pawns && (king >>> 3) > 3) {
+            mirror ^= 56;
+        }
+        king ^= mirror;
+        boolean diagonal = !pawns && (king >>> 3) > (king & 7);
+        int index = side * kingSquares + (pawns ? (king >>> 3) * 4 + (king & 7) : TRIANGLE_INDEX[diagonal ? flipDiagonal(king) : king]);
+        for (int i = 1; i < size; i++) {
+            int square = squares[i] ^ mirror;
+            index = (index << 6) | (diagonal ? flipDiagonal(square) : square);
+        }
+        return index;
+    }
+
+    // the inverse of index; returns the side to move
+    int decode(int index, int[] squares) {
+        for (int i = size - 1; i >= 1; i--) {
+            squares[i] = index & 63;
+            index >>>= 6;
+        }
+        int king = index % kingSquares;
+        squares[0] = pawns ? (king >>> 2) * 8 + (king & 3) : TRIANGLE[king];
+        return index / kingSquares;
+    }
+
+    private static int flipDiagonal(int square) {
+        return ((square & 7) << 3) | (square >>> 3);
+    }
+
+    int value(int index) {
+        if (values != null) {
+            int value = values[index] & 0xFF;
+            return (value == TablebaseGenerator.INVALID) ? 0 : value;
+        }
+        long bit = (long) index * bits;
+        return (int) (data.getLong(HEADER_SIZE + (int) (bit >>> 3)) >>> (bit & 7)) & ((1 << bits) - 1);
+    }
+
+    byte[] values() {
+        return values;
+    }
+
+    int getMaxValue() {
+        return maxValue;
+    }
+}
@@ -0,0 +1,167 @@
+package chess.tablebase;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import chess.BitBoard;
+import chess.Move;
+
+// The endgame tables of a directory, memory-mapped, answering for positions of up to five pieces without
+// castling rights. A probe finds the table of the material, orders the pieces like its signature and reads the
+// value at the position's index, so it costs a few dozen instructions and one memory read.
+// En passant rights are ignored: the tables hold positions without them.
+public class Tablebase {
+
+    public static final int MAX_PIECES = 5;
+
+    // probe results besides the distance to mate
+    public static final int UNKNOWN = -1;
+    public static final int DRAW = 0;
+
+    private final Path directory;
+    private volatile Table[] tables = new Table[0];
+    private volatile int maxPieces;
+
+    private Tablebase(Path directory) {
+        this.directory = directory;
+    }
+
+    // maps every table of the directory, creating it when it does not exist
+    public static Tablebase open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Tablebase tablebase = new Tablebase(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + Table.EXTENSION)) {
+            for (Path file : files) {
+                tablebase.add(Table.map(file));
+            }
+        }
+        return tablebase;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // pieces, kings included, of the largest table loaded
+    public int getMaxPieces() {
+        return maxPieces;
+    }
+
+    public boolean contains(String signature) {
+        return find(Table.normalize(signature)) != null;
+    }
+
+    // UNKNOWN, DRAW, or the distance to mate in plies plus one: see isWin and distance
+    public int probe(BitBoard board) {
+        return probe(board, new int[MAX_PIECES]);
+    }
+
+    // the same with the caller's buffer for the piece squares, at least MAX_PIECES long, so a search can probe at
+    // every node without allocating
+    public int probe(BitBoard board, int[] squares) {
+        if (Long.bitCount(board.occupied()) > maxPieces || board.getCastlingRights() != 0) {
+            return UNKNOWN;
+        }
+        int white = Table.material(board, BitBoard.WHITE);
+        int black = Table.material(board, BitBoard.BLACK);
+        for (Table table : tables) {
+            if (table.whiteMaterial == white && table.blackMaterial == black) {
+                return table.value(index(table, board, false, squares));
+            }
+            if (table.whiteMaterial == black && table.blackMaterial == white) {
+                return table.value(index(table, board, true, squares));
+            }
+        }
+        return UNKNOWN;
+    }
+
+    // whether a probe result other than UNKNOWN and DRAW means the side to move wins
+    public static boolean isWin(int value) {
+        return value > 0 && (value & 1) == 0;
+    }
+
+    // plies to mate of a probe result other than UNKNOWN and DRAW, 0 when the side to move is mated
+    public static int distance(int value) {
+        return value - 1;
+    }
+
+    // the move that wins fastest, loses slowest or keeps the draw; Move.NONE when the position is not in the
+    // tables or has no moves. The board is left as it was.
+    public int bestMove(BitBoard board) {
+        return bestMove(board, new int[Move.MAX_MOVES], new int[MAX_PIECES]);
+    }
+
+    // moves is filled with the legal moves and squares is the probe buffer
+    public int bestMove(BitBoard board, int[] moves, int[] squares) {
+        if (probe(board, squares) == UNKNOWN) {
+            return Move.NONE;
+        }
+        int count = board.generateLegalMoves(moves);
+        int best = Move.NONE;
+        int bestRank = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            int value = probe(board, squares);
+            board.unmakeMove();
+            int rank = rank(value);
+            if (rank > bestRank) {
+                bestRank = rank;
+                best = moves[i];
+            }
+        }
+        return best;
+    }
+
+    // orders the child positions from the mover's side: mates soonest first, then draws, then the longest losses
+    private static int rank(int value) {
+        if (value == UNKNOWN) {
+            return Integer.MIN_VALUE + 1;
+        }
+        if (value == DRAW) {
+            return 0;
+        }
+        // the child is seen from the opponent, so its loss is our win
+        return isWin(value) ? -1000 + distance(value) : 1000 - distance(value);
+    }
+
+    // the board's pieces in the order of the table, mirrored when the table has the material on the other side
+    private static int index(Table table, BitBoard board, boolean flip, int[] squares) {
+        for (int i = 0; i < table.size; i++) {
+            int color = flip ? 1 - table.colors[i] : table.colors[i];
+            // pieces of the same kind are listed one after another in the signature
+            int same = 0;
+            while (same < i && table.types[i - same - 1] == table.types[i] && table.colors[i - same - 1] == table.colors[i]) {
+                same++;
+            }
+            int square = board.pieceSquare(color, table.types[i], same);
+            squares[i] = flip ? square ^ 56 : square;
+        }
+        int side = flip ? 1 - board.getSideToMove() : board.getSideToMove();
+        return table.index(squares, side);
+    }
+
+    Table find(String signature) {
+        for (Table table : tables) {
+            if (table.signature.equals(signature)) {
+                return table;
+            }
+        }
+        return null;
+    }
+
+    // adds a table, replacing the one with the same material
+    synchronized void add(Table table) {
+        Table[] list = tables;
+        int i = 0;
+        while (i < list.length && !list[i].signature.equals(table.signature)) {
+            i++;
+        }
+        list = Arrays.copyOf(list, Math.max(list.length, i + 1));
+        list[i] = table;
+        tables = list;
+        maxPieces = Math.max(maxPieces, table.size);
+    }
+}